@@ -0,0 +1,108 @@
+package com.group_finity.mascot;
+
+import com.group_finity.mascot.environment.Environment;
+import com.group_finity.mascot.exception.BehaviorInstantiationException;
+import com.group_finity.mascot.exception.CantBeAliveException;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Measures {@link Manager#tick()} as a whole and each of its phases on their own,
+ * using the stock configuration and the headless environment.
+ * <p>
+ * Every benchmark is run in throughput mode and in sample time mode, the latter of which reports
+ * the percentiles of a single call. These are what should be compared against {@link Manager#TICK_INTERVAL}.
+ * Run with {@code -prof gc} to also get the allocation rate.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class TickBenchmark {
+    @Param({"1", "50", "500", "5000"})
+    public int mascotCount;
+
+    @Param("Shimeji")
+    public String imageSet;
+
+    private Manager manager;
+
+    private Environment environment;
+
+    private final List<Mascot> mascots = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws BehaviorInstantiationException, CantBeAliveException {
+        final Properties properties = Main.getInstance().getProperties();
+        properties.setProperty("Environment", "headless");
+        // Breeding would make the population, and therefore the results, depend on how long the benchmark has run
+        properties.setProperty("Breeding", "false");
+        properties.setProperty("Transients", "false");
+
+        // Every behavior change is logged, which would otherwise dominate the measurements with I/O
+        Logger.getLogger("").setLevel(java.util.logging.Level.WARNING);
+
+        NativeFactory.resetInstance();
+        environment = NativeFactory.getInstance().getEnvironment();
+
+        if (Main.getInstance().getConfiguration(imageSet) == null && !Main.getInstance().loadConfiguration(imageSet)) {
+            throw new IllegalStateException("Failed to load the configuration of image set \"" + imageSet + "\"");
+        }
+
+        manager = new Manager();
+        manager.setExitOnLastRemoved(false);
+
+        for (int i = 0; i < mascotCount; i++) {
+            final Mascot mascot = new Mascot(imageSet);
+            mascot.setAnchor(new Point(-4000, -4000));
+            mascot.setLookRight(i % 2 == 0);
+            mascot.setBehavior(Main.getInstance().getConfiguration(imageSet).buildBehavior(null, mascot));
+            manager.add(mascot);
+            mascots.add(mascot);
+        }
+
+        // Let the mascots fall onto the floor and spread out before measuring anything
+        for (int i = 0; i < 250; i++) {
+            manager.tick();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.disposeAll();
+        manager.tick();
+        mascots.clear();
+    }
+
+    @Benchmark
+    public void managerTick() {
+        manager.tick();
+    }
+
+    @Benchmark
+    public void environmentTick() {
+        environment.tick();
+    }
+
+    @Benchmark
+    public void behaviorPhase() {
+        for (final Mascot mascot : mascots) {
+            mascot.tick();
+        }
+    }
+
+    @Benchmark
+    public void applyPhase() {
+        for (final Mascot mascot : mascots) {
+            mascot.apply();
+        }
+    }
+}
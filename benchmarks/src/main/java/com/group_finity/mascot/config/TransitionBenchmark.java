@@ -0,0 +1,88 @@
+package com.group_finity.mascot.config;
+
+import com.group_finity.mascot.Main;
+import com.group_finity.mascot.Mascot;
+import com.group_finity.mascot.NativeFactory;
+import com.group_finity.mascot.behavior.Behavior;
+import com.group_finity.mascot.behavior.BehaviorPool;
+import com.group_finity.mascot.exception.BehaviorInstantiationException;
+import com.group_finity.mascot.exception.CantBeAliveException;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Measures a single behavior transition: getting the next behavior and initialising it for the {@link Mascot},
+ * either by reusing one from the {@link BehaviorPool} ({@code pooledTransition}) or by building a new one with
+ * {@link BehaviorBuilder#buildBehavior()} ({@code freshTransition}).
+ * <p>
+ * Each call moves on to the next behavior in the configuration, in the order they were loaded,
+ * so that every behavior is measured and the pool is kept as warm as it would be for a {@link Mascot}
+ * which has been running a while. Run with {@code -prof gc} to compare the bytes allocated per transition.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class TransitionBenchmark {
+    @Param("Shimeji")
+    public String imageSet;
+
+    private Mascot mascot;
+
+    private BehaviorBuilder[] builders;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Properties properties = Main.getInstance().getProperties();
+        properties.setProperty("Environment", "headless");
+
+        // Every behavior change is logged, which would otherwise dominate the measurements with I/O
+        Logger.getLogger("").setLevel(java.util.logging.Level.WARNING);
+
+        NativeFactory.resetInstance();
+
+        if (Main.getInstance().getConfiguration(imageSet) == null && !Main.getInstance().loadConfiguration(imageSet)) {
+            throw new IllegalStateException("Failed to load the configuration of image set \"" + imageSet + "\"");
+        }
+        builders = Main.getInstance().getConfiguration(imageSet).getBehaviorBuilders().values().toArray(new BehaviorBuilder[0]);
+
+        mascot = new Mascot(imageSet);
+        mascot.setAnchor(new Point(960, 1080));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mascot.dispose();
+    }
+
+    @Benchmark
+    public Behavior pooledTransition() throws BehaviorInstantiationException, CantBeAliveException {
+        final BehaviorPool pool = mascot.getBehaviorPool();
+        final Behavior behavior = nextBuilder().buildBehavior(pool);
+        mascot.setBehavior(behavior);
+        // The mascot would make the behavior it replaced available again at the start of its next tick
+        pool.recycle();
+        return behavior;
+    }
+
+    @Benchmark
+    public Behavior freshTransition() throws BehaviorInstantiationException, CantBeAliveException {
+        final Behavior behavior = nextBuilder().buildBehavior();
+        mascot.setBehavior(behavior);
+        return behavior;
+    }
+
+    private BehaviorBuilder nextBuilder() {
+        final BehaviorBuilder builder = builders[next];
+        next = (next + 1) % builders.length;
+        return builder;
+    }
+}
@@ -0,0 +1,75 @@
+package com.group_finity.mascot.image;
+
+import com.group_finity.mascot.Main;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long {@link ImagePairLoader} takes to prepare the frames of an image set once they have been decoded:
+ * premultiplying them, flipping them once scaled, and the whole of premultiplying, scaling and flipping them
+ * with the nearest neighbour filter. Each benchmark handles every frame of the image set once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class ImageBenchmark {
+    @Param({"1", "2", "3", "4"})
+    public int scaling;
+
+    @Param("Shimeji")
+    public String imageSet;
+
+    private final List<BufferedImage> decoded = new ArrayList<>();
+
+    private final List<BufferedImage> scaled = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Main.IMAGE_DIRECTORY.resolve(imageSet), "*.png")) {
+            for (final Path file : files) {
+                final BufferedImage image = ImageIO.read(file.toFile());
+                decoded.add(image);
+                scaled.add(ImagePairLoader.scale(ImagePairLoader.premultiply(image), scaling, ImagePairLoader.Filter.NEAREST_NEIGHBOUR));
+            }
+        }
+        if (decoded.isEmpty()) {
+            throw new IllegalStateException("No frames found for image set \"" + imageSet + "\"");
+        }
+    }
+
+    @Benchmark
+    public void premultiply(final Blackhole blackhole) {
+        for (final BufferedImage image : decoded) {
+            blackhole.consume(ImagePairLoader.premultiply(image));
+        }
+    }
+
+    @Benchmark
+    public void flip(final Blackhole blackhole) {
+        for (final BufferedImage image : scaled) {
+            blackhole.consume(ImagePairLoader.flip(image));
+        }
+    }
+
+    @Benchmark
+    public void prepare(final Blackhole blackhole) {
+        for (final BufferedImage image : decoded) {
+            final BufferedImage left = ImagePairLoader.scale(ImagePairLoader.premultiply(image), scaling, ImagePairLoader.Filter.NEAREST_NEIGHBOUR);
+            blackhole.consume(left);
+            blackhole.consume(ImagePairLoader.flip(left));
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.group_finity.mascot;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Which {@link Mascot Mascots} are broadcasting each affordance, and which of them have been reserved
+ * by a {@link Mascot} scanning for a partner.
+ * <p>
+ * The affordances are updated by {@link Manager} after the behavior phase, and only for the {@link Mascot Mascots}
+ * whose published affordances changed, so they are read without locking during the behavior phase.
+ * Reservations are asked for during the behavior phase, possibly from several threads at once, but are only granted
+ * by {@link #grant(Mascot[])} once the phase is over. When several {@link Mascot Mascots} ask for the same partner
+ * in one tick, the first of them in the list of {@link Mascot Mascots} gets it, so the pairs are the same whether or
+ * not the behavior phase ran in parallel. The others find out when they try to renew it in the next tick.
+ * <p>
+ * A reservation lasts until the end of the tick after it was last renewed, so a {@link Mascot} scanning for a
+ * partner has to renew it every tick, and it lapses by itself once the {@link Mascot} stops scanning.
+ */
+class AffordanceRegistry {
+    private static final class Reservation {
+        private final Mascot scanner;
+        private long tick;
+
+        private Reservation(final Mascot scanner, final long tick) {
+            this.scanner = scanner;
+            this.tick = tick;
+        }
+    }
+
+    /**
+     * The {@link Mascot Mascots} broadcasting each affordance, in the order they started.
+     */
+    private final Map<String, Set<Mascot>> mascots = new HashMap<>();
+
+    /**
+     * The reservation of each reserved {@link Mascot}. Only changed outside of the behavior phase.
+     */
+    private final Map<Mascot, Reservation> reservations = new HashMap<>();
+
+    /**
+     * The {@link Mascot} reserved by each scanning {@link Mascot}. Only changed outside of the behavior phase.
+     */
+    private final Map<Mascot, Mascot> targets = new HashMap<>();
+
+    /**
+     * The {@link Mascot} each scanning {@link Mascot} asked for during the behavior phase, to be granted after it.
+     */
+    private final ConcurrentMap<Mascot, Mascot> requests = new ConcurrentHashMap<>();
+
+    private volatile long tick = 0;
+
+    private boolean changed = false;
+
+    /**
+     * Records that the affordances of a {@link Mascot} have changed. Only called from the thread running the ticks.
+     *
+     * @param mascot the {@link Mascot} whose affordances changed
+     * @param before the affordances it had
+     * @param after  the affordances it has now
+     */
+    void update(final Mascot mascot, final List<String> before, final List<String> after) {
+        for (final String affordance : before) {
+            if (!after.contains(affordance)) {
+                final Set<Mascot> broadcasting = mascots.get(affordance);
+                if (broadcasting != null && broadcasting.remove(mascot)) {
+                    changed = true;
+                    if (broadcasting.isEmpty()) {
+                        mascots.remove(affordance);
+                    }
+                }
+            }
+        }
+        for (final String affordance : after) {
+            if (mascots.computeIfAbsent(affordance, k -> new LinkedHashSet<>()).add(mascot)) {
+                changed = true;
+            }
+        }
+    }
+
+    /**
+     * Forgets a {@link Mascot} which has been removed, along with any reservations it was part of.
+     * Only called from the thread running the ticks.
+     */
+    void remove(final Mascot mascot) {
+        update(mascot, mascot.getPublishedAffordances(), Collections.emptyList());
+        reservations.remove(mascot);
+        requests.remove(mascot);
+        final Mascot target = targets.remove(mascot);
+        if (target != null) {
+            release(mascot, target);
+        }
+    }
+
+    /**
+     * Starts a new tick, dropping the reservations which were not renewed in the last one.
+     * Only called from the thread running the ticks, before the behavior phase.
+     */
+    void nextTick() {
+        final long tick = ++this.tick;
+        reservations.values().removeIf(reservation -> reservation.tick < tick - 1);
+        targets.entrySet().removeIf(entry -> {
+            final Reservation reservation = reservations.get(entry.getValue());
+            return reservation == null || reservation.scanner != entry.getKey();
+        });
+    }
+
+    /**
+     * @return whether the counts have changed since this was last called
+     */
+    boolean pollChanged() {
+        final boolean changed = this.changed;
+        this.changed = false;
+        return changed;
+    }
+
+    /**
+     * @return the first {@link Mascot} to start broadcasting the given affordance, or {@code null} if there are none
+     */
+    Mascot getAny(final String affordance) {
+        final Set<Mascot> broadcasting = mascots.get(affordance);
+        return broadcasting == null || broadcasting.isEmpty() ? null : broadcasting.iterator().next();
+    }
+
+    /**
+     * Asks to reserve a {@link Mascot} broadcasting the given affordance which no other {@link Mascot} had reserved
+     * at the start of the tick. If the scanning {@link Mascot} has already reserved one which is still broadcasting it,
+     * that one is kept.
+     *
+     * @param affordance the affordance to look for
+     * @param scanner    the {@link Mascot} looking for a partner
+     * @return the {@link Mascot} asked for, or {@code null} if there are none left
+     */
+    Mascot reserve(final String affordance, final Mascot scanner) {
+        final Set<Mascot> broadcasting = mascots.getOrDefault(affordance, Collections.emptySet());
+
+        final Mascot current = targets.get(scanner);
+        if (current != null && broadcasting.contains(current) && isFree(current, scanner)) {
+            requests.put(scanner, current);
+            return current;
+        }
+
+        for (final Mascot target : broadcasting) {
+            if (target != scanner && isFree(target, scanner)) {
+                requests.put(scanner, target);
+                return target;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Asks to renew the reservation of a {@link Mascot}, or to make it again if it has lapsed and nobody else has
+     * taken it.
+     *
+     * @return {@code false} if another {@link Mascot} holds the reservation
+     */
+    boolean renew(final Mascot scanner, final Mascot target) {
+        if (isFree(target, scanner)) {
+            requests.put(scanner, target);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Grants the reservations asked for during the behavior phase, in the order of the {@link Mascot Mascots} which
+     * asked for them. Only called from the thread running the ticks, after the behavior phase.
+     *
+     * @param mascots the {@link Mascot Mascots} which were ticked, in order
+     */
+    void grant(final Mascot[] mascots) {
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        for (final Mascot scanner : mascots) {
+            final Mascot target = requests.remove(scanner);
+            if (target == null || !isFree(target, scanner)) {
+                continue;
+            }
+
+            final Reservation held = reservations.get(target);
+            if (held != null && held.scanner == scanner) {
+                held.tick = tick;
+            } else {
+                reservations.put(target, new Reservation(scanner, tick));
+            }
+
+            final Mascot previous = targets.put(scanner, target);
+            if (previous != null && previous != target) {
+                release(scanner, previous);
+            }
+        }
+        requests.clear();
+    }
+
+    private boolean isFree(final Mascot target, final Mascot scanner) {
+        final Reservation held = reservations.get(target);
+        return held == null || held.scanner == scanner || held.tick < tick - 1;
+    }
+
+    private void release(final Mascot scanner, final Mascot target) {
+        final Reservation held = reservations.get(target);
+        if (held != null && held.scanner == scanner) {
+            reservations.remove(target);
+        }
+    }
+
+    /**
+     * Only called from the thread running the ticks.
+     *
+     * @return whether the given {@link Mascot} holds a reservation
+     */
+    boolean isReserving(final Mascot scanner) {
+        return targets.containsKey(scanner);
+    }
+
+    /**
+     * Only called from the thread running the ticks.
+     *
+     * @return the number of {@link Mascot Mascots} broadcasting each affordance
+     */
+    Map<String, Integer> getCounts() {
+        final Map<String, Integer> counts = new TreeMap<>();
+        for (final Map.Entry<String, Set<Mascot>> entry : mascots.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().size());
+        }
+        return counts;
+    }
+
+    int getReservationCount() {
+        return reservations.size();
+    }
+}
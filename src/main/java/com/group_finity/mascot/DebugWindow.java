@@ -1,13 +1,120 @@
 package com.group_finity.mascot;
 
 import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Kilkakon
  */
 public class DebugWindow extends JFrame {
+    /**
+     * How often the engine tab is refreshed while the window is visible, in milliseconds.
+     */
+    private static final int ENGINE_REFRESH_INTERVAL = 500;
+
     public DebugWindow() {
         initComponents();
+        initEngineTab();
+    }
+
+    /**
+     * Moves the generated layout into the first tab and adds a second tab showing {@link ManagerStats}.
+     * This is done here rather than in the form so that the generated code is left alone.
+     */
+    private void initEngineTab() {
+        final Container mascotTab = getContentPane();
+
+        lblTicks = new JLabel("Ticks");
+        lblTicksValue = new JLabel("N/A");
+        lblTickOverruns = new JLabel("Tick Overruns");
+        lblTickOverrunsValue = new JLabel("N/A");
+        lblSkippedTicks = new JLabel("Skipped Ticks");
+        lblSkippedTicksValue = new JLabel("N/A");
+        lblSlowestMascot = new JLabel("Slowest Mascot");
+        lblSlowestMascotValue = new JLabel("N/A");
+        lblSlowestBehaviour = new JLabel("Slowest Behaviour");
+        lblSlowestBehaviourValue = new JLabel("N/A");
+        lblAffordances = new JLabel("Affordances");
+        lblAffordancesValue = new JLabel("N/A");
+        lblReservations = new JLabel("Reservations");
+        lblReservationsValue = new JLabel("N/A");
+        lblScriptCache = new JLabel("Script Cache");
+        lblScriptCacheValue = new JLabel("N/A");
+
+        final JPanel summary = new JPanel(new GridLayout(0, 2, 12, 6));
+        summary.add(lblTicks);
+        summary.add(lblTicksValue);
+        summary.add(lblTickOverruns);
+        summary.add(lblTickOverrunsValue);
+        summary.add(lblSkippedTicks);
+        summary.add(lblSkippedTicksValue);
+        summary.add(lblSlowestMascot);
+        summary.add(lblSlowestMascotValue);
+        summary.add(lblSlowestBehaviour);
+        summary.add(lblSlowestBehaviourValue);
+        summary.add(lblAffordances);
+        summary.add(lblAffordancesValue);
+        summary.add(lblReservations);
+        summary.add(lblReservationsValue);
+        summary.add(lblScriptCache);
+        summary.add(lblScriptCacheValue);
+
+        phaseModel = new DefaultTableModel(new Object[]{"Phase", "Count", "Mean (ms)", "p50 (ms)", "p99 (ms)", "Max (ms)"}, ManagerStats.Phase.values().length) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        final JTable phaseTable = new JTable(phaseModel);
+        phaseTable.setPreferredScrollableViewportSize(new Dimension(420, phaseTable.getRowHeight() * ManagerStats.Phase.values().length));
+
+        btnResetStatistics = new JButton("Reset");
+        btnResetStatistics.addActionListener(e -> {
+            ManagerStats.getInstance().reset();
+            refreshEngineTab();
+        });
+
+        final JPanel engineTab = new JPanel(new BorderLayout(0, 8));
+        engineTab.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        engineTab.add(summary, BorderLayout.NORTH);
+        engineTab.add(new JScrollPane(phaseTable), BorderLayout.CENTER);
+        engineTab.add(btnResetStatistics, BorderLayout.SOUTH);
+
+        tabs = new JTabbedPane();
+        tabs.addTab("Mascot", mascotTab);
+        tabs.addTab("Engine", engineTab);
+        setContentPane(tabs);
+
+        engineRefreshTimer = new Timer(ENGINE_REFRESH_INTERVAL, e -> refreshEngineTab());
+        pack();
+    }
+
+    private void refreshEngineTab() {
+        final ManagerStats stats = ManagerStats.getInstance();
+        lblTicksValue.setText(String.format("%d", stats.getTickCount()));
+        lblTickOverrunsValue.setText(String.format("%d", stats.getOverrunCount()));
+        lblSkippedTicksValue.setText(String.format("%d", stats.getSkippedTickCount()));
+        lblSlowestMascotValue.setText(stats.getSlowestMascot().isEmpty() ? "N/A" : stats.getSlowestMascot());
+        lblSlowestBehaviourValue.setText(stats.getSlowestBehavior().isEmpty() ? "N/A" : stats.getSlowestBehavior());
+        final String[] affordanceCounts = stats.getAffordanceCounts();
+        lblAffordancesValue.setText(affordanceCounts.length == 0 ? "N/A" : String.join(", ", affordanceCounts));
+        lblReservationsValue.setText(String.format("%d", stats.getReservationCount()));
+        lblScriptCacheValue.setText(String.format(Locale.ROOT, "%.1f%% (%d)", stats.getScriptCacheHitRate() * 100, stats.getScriptCacheSize()));
+
+        final double nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1);
+        for (ManagerStats.Phase phase : ManagerStats.Phase.values()) {
+            final LatencyHistogram histogram = stats.getHistogram(phase);
+            final int row = phase.ordinal();
+            phaseModel.setValueAt(phase.toString(), row, 0);
+            phaseModel.setValueAt(histogram.getCount(), row, 1);
+            phaseModel.setValueAt(String.format(Locale.ROOT, "%.3f", histogram.getMean() / nanosPerMilli), row, 2);
+            phaseModel.setValueAt(String.format(Locale.ROOT, "%.3f", histogram.getPercentile(50) / nanosPerMilli), row, 3);
+            phaseModel.setValueAt(String.format(Locale.ROOT, "%.3f", histogram.getPercentile(99) / nanosPerMilli), row, 4);
+            phaseModel.setValueAt(String.format(Locale.ROOT, "%.3f", histogram.getMax() / nanosPerMilli), row, 5);
+        }
     }
 
     /**
@@ -264,10 +371,52 @@ public class DebugWindow extends JFrame {
             lblEnvironmentY.setText(Main.getInstance().getLanguageBundle().getString("EnvironmentY"));
             lblEnvironmentWidth.setText(Main.getInstance().getLanguageBundle().getString("EnvironmentWidth"));
             lblEnvironmentHeight.setText(Main.getInstance().getLanguageBundle().getString("EnvironmentHeight"));
+            tabs.setTitleAt(0, Main.getInstance().getLanguageBundle().getString("Mascot"));
+            tabs.setTitleAt(1, Main.getInstance().getLanguageBundle().getString("Engine"));
+            lblTicks.setText(Main.getInstance().getLanguageBundle().getString("Ticks"));
+            lblTickOverruns.setText(Main.getInstance().getLanguageBundle().getString("TickOverruns"));
+            lblSkippedTicks.setText(Main.getInstance().getLanguageBundle().getString("SkippedTicks"));
+            lblSlowestMascot.setText(Main.getInstance().getLanguageBundle().getString("SlowestMascot"));
+            lblSlowestBehaviour.setText(Main.getInstance().getLanguageBundle().getString("SlowestBehaviour"));
+            lblAffordances.setText(Main.getInstance().getLanguageBundle().getString("Affordances"));
+            lblReservations.setText(Main.getInstance().getLanguageBundle().getString("Reservations"));
+            lblScriptCache.setText(Main.getInstance().getLanguageBundle().getString("ScriptCache"));
+            btnResetStatistics.setText(Main.getInstance().getLanguageBundle().getString("ResetStatistics"));
+            refreshEngineTab();
+            engineRefreshTimer.start();
+        } else {
+            engineRefreshTimer.stop();
         }
         super.setVisible(b);
     }
 
+    @Override
+    public void dispose() {
+        engineRefreshTimer.stop();
+        super.dispose();
+    }
+
+    private JTabbedPane tabs;
+    private JLabel lblTicks;
+    private JLabel lblTicksValue;
+    private JLabel lblTickOverruns;
+    private JLabel lblTickOverrunsValue;
+    private JLabel lblSkippedTicks;
+    private JLabel lblSkippedTicksValue;
+    private JLabel lblSlowestMascot;
+    private JLabel lblSlowestMascotValue;
+    private JLabel lblSlowestBehaviour;
+    private JLabel lblSlowestBehaviourValue;
+    private DefaultTableModel phaseModel;
+    private JLabel lblAffordances;
+    private JLabel lblAffordancesValue;
+    private JLabel lblReservations;
+    private JLabel lblReservationsValue;
+    private JLabel lblScriptCache;
+    private JLabel lblScriptCacheValue;
+    private JButton btnResetStatistics;
+    private Timer engineRefreshTimer;
+
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private JLabel lblActiveIE;
     private JLabel lblActiveIEValue;
@@ -0,0 +1,136 @@
+package com.group_finity.mascot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds, with buckets whose width grows with their value
+ * so that every recorded duration is accurate to within about 6%, in the style of HdrHistogram.
+ * <p>
+ * Recording is lock-free and allocation-free, and can be done from any number of threads at once. A histogram
+ * recorded into by many threads at once can be split into stripes, each thread recording into one of them,
+ * so that they do not all contend for the same counts.
+ */
+class LatencyHistogram {
+    /**
+     * Each power of two is split into 2<sup>SUB_BUCKET_BITS</sup> buckets.
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Enough buckets for durations of up to 2<sup>63</sup> nanoseconds.
+     */
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray[] counts;
+
+    private final AtomicLong[] max;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder total = new LongAdder();
+
+    LatencyHistogram() {
+        this(1);
+    }
+
+    /**
+     * @param stripes roughly how many threads are expected to record at once, rounded up to a power of two
+     */
+    LatencyHistogram(final int stripes) {
+        final int length = Integer.highestOneBit(Math.max(stripes, 1) * 2 - 1);
+        counts = new AtomicLongArray[length];
+        max = new AtomicLong[length];
+        for (int i = 0; i < length; i++) {
+            counts[i] = new AtomicLongArray(BUCKETS);
+            max[i] = new AtomicLong();
+        }
+    }
+
+    void record(final long nanos) {
+        final long value = Math.max(nanos, 0);
+        final int stripe = (int) Thread.currentThread().getId() & (counts.length - 1);
+        counts[stripe].incrementAndGet(indexOf(value));
+        count.increment();
+        total.add(value);
+        if (value > max[stripe].get()) {
+            max[stripe].accumulateAndGet(value, Math::max);
+        }
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    long getTotal() {
+        return total.sum();
+    }
+
+    long getMax() {
+        long max = 0;
+        for (final AtomicLong stripe : this.max) {
+            max = Math.max(max, stripe.get());
+        }
+        return max;
+    }
+
+    double getMean() {
+        final long count = getCount();
+        return count == 0 ? 0 : (double) getTotal() / count;
+    }
+
+    /**
+     * @param percentile a value between 0 and 100
+     * @return the highest value that could be in the bucket containing the requested percentile,
+     * or 0 if nothing has been recorded
+     */
+    long getPercentile(final double percentile) {
+        long remaining = (long) Math.ceil(getCount() * Math.min(Math.max(percentile, 0), 100) / 100);
+        if (remaining == 0) {
+            return 0;
+        }
+
+        for (int i = 0; i < BUCKETS; i++) {
+            for (final AtomicLongArray stripe : counts) {
+                remaining -= stripe.get(i);
+            }
+            if (remaining <= 0) {
+                return Math.min(highestValueIn(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    void reset() {
+        for (int stripe = 0; stripe < counts.length; stripe++) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[stripe].set(i, 0);
+            }
+            max[stripe].set(0);
+        }
+        count.reset();
+        total.reset();
+    }
+
+    private static int indexOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueIn(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long subBucket = index % SUB_BUCKETS;
+        final long lowest = (1L << exponent) | (subBucket << (exponent - SUB_BUCKET_BITS));
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -7,6 +7,8 @@ import com.group_finity.mascot.exception.CantBeAliveException;
 import com.group_finity.mascot.exception.ConfigurationException;
 import com.group_finity.mascot.image.ImagePairs;
 import com.group_finity.mascot.imagesetchooser.ImageSetChooser;
+import com.group_finity.mascot.script.Script;
+import com.group_finity.mascot.script.ScriptProfiler;
 import com.group_finity.mascot.sound.Sounds;
 import com.joconner.i18n.Utf8ResourceBundleControl;
 import com.nilo.plaf.nimrod.NimRODLookAndFeel;
@@ -15,6 +17,8 @@ import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
 import javax.imageio.ImageIO;
+import javax.management.JMException;
+import javax.management.ObjectName;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.event.PopupMenuEvent;
@@ -28,13 +32,20 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
@@ -52,6 +63,7 @@ public class Main {
     public static final Path CONFIG_DIRECTORY = Paths.get("conf");
     public static final Path IMAGE_DIRECTORY = Paths.get("img");
     public static final Path SOUND_DIRECTORY = Paths.get("sound");
+    public static final Path CACHE_DIRECTORY = Paths.get("cache");
     public static final Path SETTINGS_FILE = CONFIG_DIRECTORY.resolve("settings.properties");
     public static final Path LOGGING_FILE = CONFIG_DIRECTORY.resolve("logging.properties");
     public static final Path THEME_FILE = CONFIG_DIRECTORY.resolve("theme.properties");
@@ -94,9 +106,14 @@ public class Main {
         return instance;
     }
 
-    private static JFrame frame = new JFrame();
+    // No frames can be created without a display, which is the case with the headless environment
+    private static JFrame frame = GraphicsEnvironment.isHeadless() ? null : new JFrame();
 
     public static void showError(String message) {
+        if (GraphicsEnvironment.isHeadless()) {
+            log.log(Level.SEVERE, message);
+            return;
+        }
         JOptionPane.showMessageDialog(frame, message, "Error", JOptionPane.ERROR_MESSAGE);
     }
 
@@ -198,172 +215,347 @@ public class Main {
             }
         }
 
-        // Load settings
-        for (int index = 0; index < imageSets.size(); index++) {
-            if (!loadConfiguration(imageSets.get(index))) {
-                // failed validation
-                configurations.remove(imageSets.get(index));
-                imageSets.remove(imageSets.get(index));
-                index--;
-            }
+        // Create the tray icon
+        if (!GraphicsEnvironment.isHeadless()) {
+            createTrayIcon();
+        }
+
+        try {
+            getManager().setTickInterval(Long.parseLong(properties.getProperty("TickInterval", String.valueOf(Manager.TICK_INTERVAL))), TimeUnit.MILLISECONDS);
+        } catch (IllegalArgumentException e) {
+            log.log(Level.WARNING, "Invalid tick interval, using the default of " + Manager.TICK_INTERVAL + " ms", e);
         }
+        getManager().setParallel(Boolean.parseBoolean(properties.getProperty("ParallelTicks", "false")));
+        getManager().setLevelOfDetail(Boolean.parseBoolean(properties.getProperty("LevelOfDetail", "false")));
+        try {
+            final String frameRate = properties.getProperty("FrameRate", "0");
+            getManager().setFrameRate(frameRate.equalsIgnoreCase("Display") ? getDisplayRefreshRate() : Double.parseDouble(frameRate));
+        } catch (NumberFormatException e) {
+            log.log(Level.WARNING, "Invalid frame rate, showing mascots once per tick", e);
+        }
+
+        // Expose the tick statistics to JMX clients such as JConsole
+        ManagerStats.getInstance().setEnabled(Boolean.parseBoolean(properties.getProperty("TickStatistics", "false")));
+        ScriptProfiler.getInstance().setEnabled(Boolean.parseBoolean(properties.getProperty("ScriptProfiling", "false")));
+        Script.setMultiscreen(Boolean.parseBoolean(properties.getProperty("Multiscreen", "true")));
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(ManagerStats.getInstance(), new ObjectName(ManagerStats.OBJECT_NAME));
+        } catch (JMException e) {
+            log.log(Level.WARNING, "Failed to register the tick statistics MBean", e);
+        }
+
+        // Start ticking straight away, so that each mascot appears as soon as its image set has loaded,
+        // but do not exit for having no mascots until the first ones have all been created
+        boolean isExit = getManager().isExitOnLastRemoved();
+        getManager().setExitOnLastRemoved(false);
+        getManager().start();
+
+        // Load settings and create the first mascots
+        loadConfigurations();
         if (imageSets.isEmpty()) {
             exit();
         }
 
-        // Create the tray icon
-        createTrayIcon();
+        getManager().setExitOnLastRemoved(isExit);
+    }
 
-        // Create the first mascot
-        for (String imageSet : imageSets) {
-            createMascot(imageSet);
+    /**
+     * @return the refresh rate of the default screen in hertz, or 60 if it is not known
+     */
+    private static int getDisplayRefreshRate() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return 0;
         }
-
-        getManager().start();
+        final int refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+        return refreshRate != DisplayMode.REFRESH_RATE_UNKNOWN ? refreshRate : 60;
     }
 
-    private boolean loadConfiguration(final String imageSet) {
+    /**
+     * Loads the actions and behaviors of an image set, along with those of any image sets its mascots can breed or transform into.
+     *
+     * @param imageSet the image set to load
+     * @return {@code true} if the configuration was loaded and is valid
+     */
+    public boolean loadConfiguration(final String imageSet) {
         try {
-            // try to load in the correct xml files
-            Path filePath = CONFIG_DIRECTORY;
-            Path actionsFile = filePath.resolve("actions.xml");
-            if (Files.exists(filePath.resolve("\u52D5\u4F5C.xml"))) {
-                actionsFile = filePath.resolve("\u52D5\u4F5C.xml");
-            }
+            final ArrayList<String> childMascots = new ArrayList<>();
+            final Configuration configuration = readConfiguration(imageSet, childMascots);
 
-            filePath = CONFIG_DIRECTORY.resolve(imageSet);
-            if (Files.exists(filePath.resolve("actions.xml"))) {
-                actionsFile = filePath.resolve("actions.xml");
-            } else if (Files.exists(filePath.resolve("\u52D5\u4F5C.xml"))) {
-                actionsFile = filePath.resolve("\u52D5\u4F5C.xml");
-            } else if (Files.exists(filePath.resolve("\u00D5\u00EF\u00F2\u00F5\u00A2\u00A3.xml"))) {
-                actionsFile = filePath.resolve("\u00D5\u00EF\u00F2\u00F5\u00A2\u00A3.xml");
-            } else if (Files.exists(filePath.resolve("\u00A6-\u00BA@.xml"))) {
-                actionsFile = filePath.resolve("\u00A6-\u00BA@.xml");
-            } else if (Files.exists(filePath.resolve("\u00F4\u00AB\u00EC\u00FD.xml"))) {
-                actionsFile = filePath.resolve("\u00F4\u00AB\u00EC\u00FD.xml");
-            } else if (Files.exists(filePath.resolve("one.xml"))) {
-                actionsFile = filePath.resolve("one.xml");
-            } else if (Files.exists(filePath.resolve("1.xml"))) {
-                actionsFile = filePath.resolve("1.xml");
-            }
+            configurations.put(imageSet, configuration);
 
-            filePath = IMAGE_DIRECTORY.resolve(imageSet).resolve(CONFIG_DIRECTORY);
-            if (Files.exists(filePath.resolve("actions.xml"))) {
-                actionsFile = filePath.resolve("actions.xml");
-            } else if (Files.exists(filePath.resolve("\u52D5\u4F5C.xml"))) {
-                actionsFile = filePath.resolve("\u52D5\u4F5C.xml");
-            } else if (Files.exists(filePath.resolve("\u00D5\u00EF\u00F2\u00F5\u00A2\u00A3.xml"))) {
-                actionsFile = filePath.resolve("\u00D5\u00EF\u00F2\u00F5\u00A2\u00A3.xml");
-            } else if (Files.exists(filePath.resolve("\u00A6-\u00BA@.xml"))) {
-                actionsFile = filePath.resolve("\u00A6-\u00BA@.xml");
-            } else if (Files.exists(filePath.resolve("\u00F4\u00AB\u00EC\u00FD.xml"))) {
-                actionsFile = filePath.resolve("\u00F4\u00AB\u00EC\u00FD.xml");
-            } else if (Files.exists(filePath.resolve("one.xml"))) {
-                actionsFile = filePath.resolve("one.xml");
-            } else if (Files.exists(filePath.resolve("1.xml"))) {
-                actionsFile = filePath.resolve("1.xml");
+            for (final String set : childMascots) {
+                if (!configurations.containsKey(set)) {
+                    loadConfiguration(set);
+                }
             }
 
-            log.log(Level.INFO, "Reading action file \"{0}\" for image set \"{1}\"", new Object[]{actionsFile, imageSet});
+            childImageSets.put(imageSet, childMascots);
+
+            return true;
+        } catch (ConfigurationException | IOException | ParserConfigurationException | SAXException e) {
+            reportFailedConfiguration(e);
+        }
+
+        return false;
+    }
 
-            final Document actions = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(
-                    Files.newInputStream(actionsFile));
+    private void reportFailedConfiguration(final Exception e) {
+        log.log(Level.SEVERE, "Failed to load configuration files", e);
+        showError(languageBundle.getString("FailedLoadConfigErrorMessage") + "\n" + e.getMessage() + "\n" + languageBundle.getString("SeeLogForDetails"));
+    }
 
-            Configuration configuration = new Configuration();
+    /**
+     * An image set loaded in the background by {@link #loadConfigurations()}, or why it could not be.
+     */
+    private static final class LoadedImageSet {
+        private final Configuration configuration;
+        private final ArrayList<String> childMascots;
+        private final Exception error;
+
+        private LoadedImageSet(final Configuration configuration, final ArrayList<String> childMascots, final Exception error) {
+            this.configuration = configuration;
+            this.childMascots = childMascots;
+            this.error = error;
+        }
+    }
 
-            configuration.load(new Entry(actions.getDocumentElement()), imageSet);
+    /**
+     * Loads the active image sets and those their mascots can breed or transform into several at a time,
+     * creating the first mascot of each active image set as soon as it and the image sets it depends on are loaded.
+     * Image sets which fail to load are removed from the active ones.
+     * <p>
+     * Each image set is only loaded once, however many others depend on it. Errors are reported one at a time,
+     * in the same order as if the image sets had been loaded one after another, whichever finishes first.
+     */
+    private void loadConfigurations() {
+        final AtomicInteger threads = new AtomicInteger();
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(processors, Math.max(imageSets.size(), 1)), task -> {
+            final Thread thread = new Thread(task, "Configuration Loader " + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
 
-            filePath = CONFIG_DIRECTORY;
-            Path behaviorsFile = filePath.resolve("behaviors.xml");
-            if (Files.exists(filePath.resolve("\u884C\u52D5.xml"))) {
-                behaviorsFile = filePath.resolve("\u884C\u52D5.xml");
+        try {
+            final ConcurrentMap<String, CompletableFuture<LoadedImageSet>> loading = new ConcurrentHashMap<>();
+            for (final String imageSet : imageSets) {
+                submitConfiguration(imageSet, loading, executor);
             }
 
-            filePath = CONFIG_DIRECTORY.resolve(imageSet);
-            if (Files.exists(filePath.resolve("behaviors.xml"))) {
-                behaviorsFile = filePath.resolve("behaviors.xml");
-            } else if (Files.exists(filePath.resolve("behavior.xml"))) {
-                behaviorsFile = filePath.resolve("behavior.xml");
-            } else if (Files.exists(filePath.resolve("\u884C\u52D5.xml"))) {
-                behaviorsFile = filePath.resolve("\u884C\u52D5.xml");
-            } else if (Files.exists(filePath.resolve("\u00DE\u00ED\u00EE\u00D5\u00EF\u00F2.xml"))) {
-                behaviorsFile = filePath.resolve("\u00DE\u00ED\u00EE\u00D5\u00EF\u00F2.xml");
-            } else if (Files.exists(filePath.resolve("\u00AA\u00B5\u00A6-.xml"))) {
-                behaviorsFile = filePath.resolve("\u00AA\u00B5\u00A6-.xml");
-            } else if (Files.exists(filePath.resolve("\u00ECs\u00F4\u00AB.xml"))) {
-                behaviorsFile = filePath.resolve("\u00ECs\u00F4\u00AB.xml");
-            } else if (Files.exists(filePath.resolve("two.xml"))) {
-                behaviorsFile = filePath.resolve("two.xml");
-            } else if (Files.exists(filePath.resolve("2.xml"))) {
-                behaviorsFile = filePath.resolve("2.xml");
+            final Set<String> installed = new HashSet<>();
+            for (int index = 0; index < imageSets.size(); index++) {
+                final String imageSet = imageSets.get(index);
+                if (!installConfiguration(imageSet, loading, installed)) {
+                    // failed validation
+                    configurations.remove(imageSet);
+                    imageSets.remove(index);
+                    index--;
+                    continue;
+                }
+
+                createMascot(imageSet);
             }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Starts loading an image set in the background unless it is already being loaded. Once it has been read,
+     * the image sets it depends on are started in turn, without waiting for them, so an image set which depends on
+     * one which depends on it does not hold up either.
+     */
+    private void submitConfiguration(final String imageSet, final ConcurrentMap<String, CompletableFuture<LoadedImageSet>> loading, final ExecutorService executor) {
+        if (configurations.containsKey(imageSet) || loading.containsKey(imageSet)) {
+            return;
+        }
+
+        final CompletableFuture<LoadedImageSet> future = new CompletableFuture<>();
+        if (loading.putIfAbsent(imageSet, future) != null) {
+            return;
+        }
 
-            filePath = IMAGE_DIRECTORY.resolve(imageSet).resolve(CONFIG_DIRECTORY);
-            if (Files.exists(filePath.resolve("behaviors.xml"))) {
-                behaviorsFile = filePath.resolve("behaviors.xml");
-            } else if (Files.exists(filePath.resolve("behavior.xml"))) {
-                behaviorsFile = filePath.resolve("behavior.xml");
-            } else if (Files.exists(filePath.resolve("\u884C\u52D5.xml"))) {
-                behaviorsFile = filePath.resolve("\u884C\u52D5.xml");
-            } else if (Files.exists(filePath.resolve("\u00DE\u00ED\u00EE\u00D5\u00EF\u00F2.xml"))) {
-                behaviorsFile = filePath.resolve("\u00DE\u00ED\u00EE\u00D5\u00EF\u00F2.xml");
-            } else if (Files.exists(filePath.resolve("\u00AA\u00B5\u00A6-.xml"))) {
-                behaviorsFile = filePath.resolve("\u00AA\u00B5\u00A6-.xml");
-            } else if (Files.exists(filePath.resolve("\u00ECs\u00F4\u00AB.xml"))) {
-                behaviorsFile = filePath.resolve("\u00ECs\u00F4\u00AB.xml");
-            } else if (Files.exists(filePath.resolve("two.xml"))) {
-                behaviorsFile = filePath.resolve("two.xml");
-            } else if (Files.exists(filePath.resolve("2.xml"))) {
-                behaviorsFile = filePath.resolve("2.xml");
+        executor.execute(() -> {
+            LoadedImageSet loaded;
+            try {
+                final ArrayList<String> childMascots = new ArrayList<>();
+                loaded = new LoadedImageSet(readConfiguration(imageSet, childMascots), childMascots, null);
+                for (final String set : childMascots) {
+                    submitConfiguration(set, loading, executor);
+                }
+            } catch (ConfigurationException | IOException | ParserConfigurationException | SAXException | RuntimeException e) {
+                loaded = new LoadedImageSet(null, null, e);
             }
+            future.complete(loaded);
+        });
+    }
 
-            log.log(Level.INFO, "Reading behavior file \"{0}\" for image set \"{1}\"", new Object[]{behaviorsFile, imageSet});
+    /**
+     * Waits for an image set loaded by {@link #submitConfiguration} to finish, then makes it and the image sets it
+     * depends on available, reporting any which failed to load.
+     *
+     * @param installed the image sets already dealt with, whether or not they loaded
+     * @return {@code true} if the image set itself loaded and is valid
+     */
+    private boolean installConfiguration(final String imageSet, final Map<String, CompletableFuture<LoadedImageSet>> loading, final Set<String> installed) {
+        if (!installed.add(imageSet)) {
+            return configurations.containsKey(imageSet);
+        }
 
-            final Document behaviors = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(
-                    Files.newInputStream(behaviorsFile));
+        final CompletableFuture<LoadedImageSet> future = loading.get(imageSet);
+        if (future == null) {
+            // Loaded before this started
+            return configurations.containsKey(imageSet);
+        }
 
-            configuration.load(new Entry(behaviors.getDocumentElement()), imageSet);
+        final LoadedImageSet loaded = future.join();
+        if (loaded.error != null) {
+            if (loaded.error instanceof RuntimeException) {
+                throw (RuntimeException) loaded.error;
+            }
+            reportFailedConfiguration(loaded.error);
+            return false;
+        }
 
-            configuration.validate();
+        configurations.put(imageSet, loaded.configuration);
+        for (final String set : loaded.childMascots) {
+            installConfiguration(set, loading, installed);
+        }
+        childImageSets.put(imageSet, loaded.childMascots);
 
-            configurations.put(imageSet, configuration);
+        return true;
+    }
 
-            ArrayList<String> childMascots = new ArrayList<>();
+    /**
+     * Reads and validates the actions and behaviors of an image set.
+     *
+     * @param imageSet     the image set to read
+     * @param childMascots filled with the image sets its mascots can breed or transform into
+     * @return the configuration of the image set
+     */
+    private Configuration readConfiguration(final String imageSet, final ArrayList<String> childMascots) throws ConfigurationException, IOException, ParserConfigurationException, SAXException {
+        // try to load in the correct xml files
+        Path filePath = CONFIG_DIRECTORY;
+        Path actionsFile = filePath.resolve("actions.xml");
+        if (Files.exists(filePath.resolve("\u52D5\u4F5C.xml"))) {
+            actionsFile = filePath.resolve("\u52D5\u4F5C.xml");
+        }
 
-            // born mascot bit goes here...
-            for (final Entry list : new Entry(actions.getDocumentElement()).selectChildren("ActionList")) {
-                for (final Entry node : list.selectChildren("Action")) {
-                    if (node.getAttributes().containsKey("BornMascot")) {
-                        String set = node.getAttribute("BornMascot");
-                        if (!childMascots.contains(set)) {
-                            childMascots.add(set);
-                        }
-                        if (!configurations.containsKey(set)) {
-                            loadConfiguration(set);
-                        }
+        filePath = CONFIG_DIRECTORY.resolve(imageSet);
+        if (Files.exists(filePath.resolve("actions.xml"))) {
+            actionsFile = filePath.resolve("actions.xml");
+        } else if (Files.exists(filePath.resolve("\u52D5\u4F5C.xml"))) {
+            actionsFile = filePath.resolve("\u52D5\u4F5C.xml");
+        } else if (Files.exists(filePath.resolve("\u00D5\u00EF\u00F2\u00F5\u00A2\u00A3.xml"))) {
+            actionsFile = filePath.resolve("\u00D5\u00EF\u00F2\u00F5\u00A2\u00A3.xml");
+        } else if (Files.exists(filePath.resolve("\u00A6-\u00BA@.xml"))) {
+            actionsFile = filePath.resolve("\u00A6-\u00BA@.xml");
+        } else if (Files.exists(filePath.resolve("\u00F4\u00AB\u00EC\u00FD.xml"))) {
+            actionsFile = filePath.resolve("\u00F4\u00AB\u00EC\u00FD.xml");
+        } else if (Files.exists(filePath.resolve("one.xml"))) {
+            actionsFile = filePath.resolve("one.xml");
+        } else if (Files.exists(filePath.resolve("1.xml"))) {
+            actionsFile = filePath.resolve("1.xml");
+        }
+
+        filePath = IMAGE_DIRECTORY.resolve(imageSet).resolve(CONFIG_DIRECTORY);
+        if (Files.exists(filePath.resolve("actions.xml"))) {
+            actionsFile = filePath.resolve("actions.xml");
+        } else if (Files.exists(filePath.resolve("\u52D5\u4F5C.xml"))) {
+            actionsFile = filePath.resolve("\u52D5\u4F5C.xml");
+        } else if (Files.exists(filePath.resolve("\u00D5\u00EF\u00F2\u00F5\u00A2\u00A3.xml"))) {
+            actionsFile = filePath.resolve("\u00D5\u00EF\u00F2\u00F5\u00A2\u00A3.xml");
+        } else if (Files.exists(filePath.resolve("\u00A6-\u00BA@.xml"))) {
+            actionsFile = filePath.resolve("\u00A6-\u00BA@.xml");
+        } else if (Files.exists(filePath.resolve("\u00F4\u00AB\u00EC\u00FD.xml"))) {
+            actionsFile = filePath.resolve("\u00F4\u00AB\u00EC\u00FD.xml");
+        } else if (Files.exists(filePath.resolve("one.xml"))) {
+            actionsFile = filePath.resolve("one.xml");
+        } else if (Files.exists(filePath.resolve("1.xml"))) {
+            actionsFile = filePath.resolve("1.xml");
+        }
+
+        log.log(Level.INFO, "Reading action file \"{0}\" for image set \"{1}\"", new Object[]{actionsFile, imageSet});
+
+        final Document actions = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(
+                Files.newInputStream(actionsFile));
+
+        Configuration configuration = new Configuration();
+
+        configuration.load(new Entry(actions.getDocumentElement()), imageSet);
+
+        filePath = CONFIG_DIRECTORY;
+        Path behaviorsFile = filePath.resolve("behaviors.xml");
+        if (Files.exists(filePath.resolve("\u884C\u52D5.xml"))) {
+            behaviorsFile = filePath.resolve("\u884C\u52D5.xml");
+        }
+
+        filePath = CONFIG_DIRECTORY.resolve(imageSet);
+        if (Files.exists(filePath.resolve("behaviors.xml"))) {
+            behaviorsFile = filePath.resolve("behaviors.xml");
+        } else if (Files.exists(filePath.resolve("behavior.xml"))) {
+            behaviorsFile = filePath.resolve("behavior.xml");
+        } else if (Files.exists(filePath.resolve("\u884C\u52D5.xml"))) {
+            behaviorsFile = filePath.resolve("\u884C\u52D5.xml");
+        } else if (Files.exists(filePath.resolve("\u00DE\u00ED\u00EE\u00D5\u00EF\u00F2.xml"))) {
+            behaviorsFile = filePath.resolve("\u00DE\u00ED\u00EE\u00D5\u00EF\u00F2.xml");
+        } else if (Files.exists(filePath.resolve("\u00AA\u00B5\u00A6-.xml"))) {
+            behaviorsFile = filePath.resolve("\u00AA\u00B5\u00A6-.xml");
+        } else if (Files.exists(filePath.resolve("\u00ECs\u00F4\u00AB.xml"))) {
+            behaviorsFile = filePath.resolve("\u00ECs\u00F4\u00AB.xml");
+        } else if (Files.exists(filePath.resolve("two.xml"))) {
+            behaviorsFile = filePath.resolve("two.xml");
+        } else if (Files.exists(filePath.resolve("2.xml"))) {
+            behaviorsFile = filePath.resolve("2.xml");
+        }
+
+        filePath = IMAGE_DIRECTORY.resolve(imageSet).resolve(CONFIG_DIRECTORY);
+        if (Files.exists(filePath.resolve("behaviors.xml"))) {
+            behaviorsFile = filePath.resolve("behaviors.xml");
+        } else if (Files.exists(filePath.resolve("behavior.xml"))) {
+            behaviorsFile = filePath.resolve("behavior.xml");
+        } else if (Files.exists(filePath.resolve("\u884C\u52D5.xml"))) {
+            behaviorsFile = filePath.resolve("\u884C\u52D5.xml");
+        } else if (Files.exists(filePath.resolve("\u00DE\u00ED\u00EE\u00D5\u00EF\u00F2.xml"))) {
+            behaviorsFile = filePath.resolve("\u00DE\u00ED\u00EE\u00D5\u00EF\u00F2.xml");
+        } else if (Files.exists(filePath.resolve("\u00AA\u00B5\u00A6-.xml"))) {
+            behaviorsFile = filePath.resolve("\u00AA\u00B5\u00A6-.xml");
+        } else if (Files.exists(filePath.resolve("\u00ECs\u00F4\u00AB.xml"))) {
+            behaviorsFile = filePath.resolve("\u00ECs\u00F4\u00AB.xml");
+        } else if (Files.exists(filePath.resolve("two.xml"))) {
+            behaviorsFile = filePath.resolve("two.xml");
+        } else if (Files.exists(filePath.resolve("2.xml"))) {
+            behaviorsFile = filePath.resolve("2.xml");
+        }
+
+        log.log(Level.INFO, "Reading behavior file \"{0}\" for image set \"{1}\"", new Object[]{behaviorsFile, imageSet});
+
+        final Document behaviors = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(
+                Files.newInputStream(behaviorsFile));
+
+        configuration.load(new Entry(behaviors.getDocumentElement()), imageSet);
+
+        configuration.validate();
+
+        // born mascot bit goes here...
+        for (final Entry list : new Entry(actions.getDocumentElement()).selectChildren("ActionList")) {
+            for (final Entry node : list.selectChildren("Action")) {
+                if (node.getAttributes().containsKey("BornMascot")) {
+                    String set = node.getAttribute("BornMascot");
+                    if (!childMascots.contains(set)) {
+                        childMascots.add(set);
                     }
-                    if (node.getAttributes().containsKey("TransformMascot")) {
-                        String set = node.getAttribute("TransformMascot");
-                        if (!childMascots.contains(set)) {
-                            childMascots.add(set);
-                        }
-                        if (!configurations.containsKey(set)) {
-                            loadConfiguration(set);
-                        }
+                }
+                if (node.getAttributes().containsKey("TransformMascot")) {
+                    String set = node.getAttribute("TransformMascot");
+                    if (!childMascots.contains(set)) {
+                        childMascots.add(set);
                     }
                 }
             }
-
-            childImageSets.put(imageSet, childMascots);
-
-            return true;
-        } catch (ConfigurationException | IOException | ParserConfigurationException | SAXException e) {
-            log.log(Level.SEVERE, "Failed to load configuration files", e);
-            showError(languageBundle.getString("FailedLoadConfigErrorMessage") + "\n" + e.getMessage() + "\n" + languageBundle.getString("SeeLogForDetails"));
         }
 
-        return false;
+        return configuration;
     }
 
     /**
@@ -507,7 +699,9 @@ public class Main {
                             // "Multiscreen" menu item
                             final JCheckBoxMenuItem multiscreenMenu = new JCheckBoxMenuItem(languageBundle.getString("Multiscreen"), Boolean.parseBoolean(properties.getProperty("Multiscreen", "true")));
                             multiscreenMenu.addItemListener(e -> {
-                                multiscreenMenu.setState(toggleBooleanSetting("Multiscreen", true));
+                                boolean result = toggleBooleanSetting("Multiscreen", true);
+                                multiscreenMenu.setState(result);
+                                Script.setMultiscreen(result);
                                 updateConfigFile();
                                 btnAllowedBehaviours.setEnabled(true);
                             });
@@ -1,19 +1,33 @@
 package com.group_finity.mascot;
 
 import com.group_finity.mascot.config.Configuration;
+import com.group_finity.mascot.environment.Environment;
 import com.group_finity.mascot.exception.BehaviorInstantiationException;
 import com.group_finity.mascot.exception.CantBeAliveException;
+import com.group_finity.mascot.script.Script;
 
 import java.awt.*;
 import java.lang.ref.WeakReference;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Manages a list of {@link Mascot Mascots}.
  * <p>
+ * Methods which add, remove or change {@link Mascot Mascots} from outside the ticker thread, such as {@link #add(Mascot)},
+ * {@link #setBehaviorAll(String)}, {@link #remainOne()} and {@link #disposeAll()}, only queue the change and return
+ * straight away. The ticker thread carries out what was queued at the start of its next tick, in the order it was
+ * queued and before any {@link Mascot} is ticked, so until then {@link #getCount()} and the rest still describe the
+ * {@link Mascot Mascots} as they were.
+ * <p>
  * Original Author: Yuki Yamada of <a href="http://www.group-finity.com/Shimeji/">Group Finity</a>
  * <p>
  * Currently developed by Shimeji-ee Group.
@@ -23,32 +37,126 @@ public class Manager {
     private static final Logger log = Logger.getLogger(Manager.class.getName());
 
     /**
-     * The duration of each tick, in milliseconds.
+     * The default duration of each tick, in milliseconds.
      */
     public static final int TICK_INTERVAL = 40;
 
     /**
-     * A list of {@link Mascot Mascots} which are managed by this {@code Manager}.
+     * The most ticks that will be run back to back when the ticker thread has fallen behind.
+     * Any ticks beyond this are skipped and counted by {@link #getSkippedTicks()}.
+     */
+    private static final int MAX_CATCH_UP_TICKS = 2;
+
+    /**
+     * The number of {@link Mascot Mascots} ticked by each task when the behavior phase runs in parallel.
+     */
+    private static final int PARALLEL_PARTITION_SIZE = 16;
+
+    /**
+     * How many ticks a {@link Mascot} must have gone without moving or changing image before it is ticked at a reduced rate.
+     */
+    private static final int STILL_TICKS = 25;
+
+    /**
+     * How often a {@link Mascot} which has stood still for {@link #STILL_TICKS} ticks is ticked.
+     */
+    private static final int STILL_TICK_DIVISOR = 2;
+
+    /**
+     * How often a {@link Mascot} which is entirely off-screen and has stood still for {@link #STILL_TICKS} ticks is ticked.
+     */
+    private static final int OFF_SCREEN_TICK_DIVISOR = 4;
+
+    /**
+     * How close the cursor has to be to a {@link Mascot}, in pixels, for it to be ticked at the full rate.
+     */
+    private static final int CURSOR_DISTANCE = 100;
+
+    /**
+     * The {@link Mascot Mascots} which are managed by this {@code Manager}, in the order they were added.
+     * This is only ever touched by the thread running {@link #tick()}; everything else reads {@link #snapshot}.
      */
-    private final List<Mascot> mascots = new ArrayList<>();
+    private final Set<Mascot> mascots = new LinkedHashSet<>();
 
     /**
-     * The {@link Mascot Mascots} to be added later. To prevent {@link ConcurrentModificationException ConcurrentModificationExceptions},
-     * the {@link Mascot Mascots} are added to this set in {@code synchronized} blocks outside of {@link #tick()},
-     * and then actually added to the {@code Manager} on the subsequent tick.
+     * Changes to be made by the thread running {@link #tick()} at the start of the next tick, such as adding or removing
+     * {@link Mascot Mascots}. Any thread can queue changes without blocking, and they are made in the order they were queued.
      */
-    private final Set<Mascot> added = new LinkedHashSet<>();
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
 
     /**
-     * The {@link Mascot Mascots} to be removed later. To prevent {@link ConcurrentModificationException ConcurrentModificationExceptions},
-     * the {@link Mascot Mascots} are added to this set in {@code synchronized} blocks outside of {@link #tick()},
-     * and then actually removed from the {@code Manager} on the subsequent tick.
+     * A copy of {@link #mascots}, published once per tick if any were added or removed, so that it can be read
+     * from any thread without locking and without blocking the thread running {@link #tick()}.
      */
-    private final Set<Mascot> removed = new LinkedHashSet<>();
+    private volatile Mascot[] snapshot = new Mascot[0];
 
-    private boolean exitOnLastRemoved = true;
+    /**
+     * Whether {@link #mascots} has changed since {@link #snapshot} was last published.
+     */
+    private boolean changed = false;
 
-    private Thread thread;
+    /**
+     * The {@link Mascot} the current thread is running the behavior phase of, if any.
+     */
+    private final ThreadLocal<Mascot> ticking = new ThreadLocal<>();
+
+    private volatile boolean parallel = false;
+
+    /**
+     * The pool the behavior phase runs on when it runs in parallel. Created the first time parallel mode is enabled.
+     */
+    private volatile ForkJoinPool pool;
+
+    private volatile boolean levelOfDetail = false;
+
+    /**
+     * The screen and the cursor position as of the current tick, used to decide how often each {@link Mascot} is ticked.
+     */
+    private Rectangle screen = new Rectangle();
+
+    private final Point cursor = new Point();
+
+    /**
+     * The number of {@link Mascot Mascots} which sat out the last tick.
+     */
+    private volatile int reducedRateCount = 0;
+
+    /**
+     * Where each {@link Mascot} was at the end of the last tick, or {@code null} if nothing has asked since then.
+     */
+    private volatile SpatialIndex index = SpatialIndex.EMPTY;
+
+    /**
+     * The {@link Mascot Mascots} the next {@link #index} is to be built from.
+     */
+    private Mascot[] indexed = new Mascot[0];
+
+    private final Object indexLock = new Object();
+
+    /**
+     * Which {@link Mascot Mascots} are broadcasting each affordance, and which have been reserved.
+     */
+    private final AffordanceRegistry affordances = new AffordanceRegistry();
+
+    private volatile boolean exitOnLastRemoved = true;
+
+    private volatile Thread thread;
+
+    /**
+     * The duration of each tick, in nanoseconds.
+     */
+    private volatile long tickInterval = TimeUnit.MILLISECONDS.toNanos(TICK_INTERVAL);
+
+    /**
+     * The time between frames presented by the ticker thread in between ticks, in nanoseconds,
+     * or 0 if {@link Mascot Mascots} are only shown once per tick.
+     */
+    private volatile long frameInterval = 0;
+
+    /**
+     * The number of ticks the ticker thread has skipped because it fell too far behind.
+     */
+    private final AtomicLong skippedTicks = new AtomicLong();
 
     public void setExitOnLastRemoved(boolean exitOnLastRemoved) {
         this.exitOnLastRemoved = exitOnLastRemoved;
@@ -58,29 +166,188 @@ public class Manager {
         return exitOnLastRemoved;
     }
 
+    /**
+     * Sets whether the behavior phase of each tick is spread over all processors.
+     * <p>
+     * Either way, {@link Mascot Mascots} only see each other as they were at the end of the previous behavior phase,
+     * and anything one does which affects the others is {@link #defer(Runnable) deferred} until the phase is over,
+     * and each {@link Mascot} makes its random choices with {@link Mascot#getRandom() numbers of its own},
+     * so the order in which {@link Mascot Mascots} are ticked makes no difference to the outcome.
+     * <p>
+     * The exception is scripts calling {@code Math.random()} which are too complicated to run without Nashorn.
+     * Those draw from a generator shared by every {@link Mascot}, so configurations which use them may turn out
+     * differently in parallel. Nashorn only runs one script at a time, so configurations which rely on it heavily
+     * gain little from running in parallel.
+     *
+     * @param parallel whether to run the behavior phase in parallel
+     */
+    public synchronized void setParallel(final boolean parallel) {
+        if (parallel && pool == null) {
+            pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+        this.parallel = parallel;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Sets whether {@link Mascot Mascots} which have been standing still are ticked less often, and those off-screen
+     * less often still. A {@link Mascot} which sits out some ticks has its time advanced by the same number of ticks
+     * the next time it is ticked, so the timing of its behaviors stays the same. Only its time catches up, not
+     * the distance it would have moved, so a {@link Mascot} which is moving or falling is always ticked at the full
+     * rate, even off-screen. A {@link Mascot} is always ticked at the full rate
+     * while it is near the cursor, being dragged, having a hotspot held, or broadcasting an affordance
+     * which other {@link Mascot Mascots} could be looking for.
+     *
+     * @param levelOfDetail whether to tick some {@link Mascot Mascots} at a reduced rate
+     */
+    public void setLevelOfDetail(final boolean levelOfDetail) {
+        this.levelOfDetail = levelOfDetail;
+    }
+
+    public boolean isLevelOfDetail() {
+        return levelOfDetail;
+    }
+
+    /**
+     * @return the number of {@link Mascot Mascots} which sat out the last tick because of {@link #setLevelOfDetail(boolean)}
+     */
+    public int getReducedRateCount() {
+        return reducedRateCount;
+    }
+
+    /**
+     * Sets the duration of each tick. {@link Manager#TICK_INTERVAL} is used by default.
+     *
+     * @param duration the duration of each tick
+     * @param unit     the unit of {@code duration}
+     */
+    public void setTickInterval(final long duration, final TimeUnit unit) {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("duration <= 0");
+        }
+        tickInterval = unit.toNanos(duration);
+        wakeUp();
+    }
+
+    /**
+     * Sets how often {@link Mascot Mascots} are shown. If this is more often than they are ticked, the ticker thread
+     * presents extra frames in between ticks, showing each {@link Mascot} part of the way between where it was
+     * before the last tick and where it is now. This makes movement smoother without running behaviors any more often,
+     * at the cost of showing everything one tick late.
+     *
+     * @param framesPerSecond the number of frames per second, or 0 to show {@link Mascot Mascots} once per tick
+     */
+    public void setFrameRate(final double framesPerSecond) {
+        frameInterval = framesPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / framesPerSecond) : 0;
+        wakeUp();
+    }
+
+    /**
+     * @return whether frames are presented in between ticks
+     */
+    private boolean isInterpolating() {
+        final long frameInterval = this.frameInterval;
+        return frameInterval > 0 && frameInterval < getTickInterval();
+    }
+
+    /**
+     * @return the duration of each tick, in nanoseconds
+     */
+    public long getTickInterval() {
+        return tickInterval;
+    }
+
+    /**
+     * @return the number of ticks the ticker thread has skipped because it fell too far behind
+     */
+    public long getSkippedTicks() {
+        return skippedTicks.get();
+    }
+
+    /**
+     * Whether there is nothing for the ticker thread to do, which is the case when every {@link Mascot} is paused
+     * and there are no pending changes.
+     */
+    private boolean isIdle() {
+        if (!pending.isEmpty()) {
+            return false;
+        }
+
+        final Mascot[] mascots = snapshot;
+        if (mascots.length == 0) {
+            return false;
+        }
+        for (final Mascot mascot : mascots) {
+            if (!mascot.isPaused()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Wakes the ticker thread if it is blocked because every {@link Mascot} was paused.
+     * This must be called after anything which could make {@link #isIdle()} return {@code false}.
+     */
+    void wakeUp() {
+        final Thread thread = this.thread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
     public void start() {
         if (thread != null && thread.isAlive()) {
             return;
         }
 
         thread = new Thread(() -> {
-            // I think nanoTime() is used instead of currentTimeMillis() because it may be more accurate on some systems that way.
-            long prev = System.nanoTime() / 1000000;
-            try {
-                while (true) {
-                    final long cur = System.nanoTime() / 1000000;
-                    if (cur - prev >= TICK_INTERVAL) {
-                        if (cur > prev + TICK_INTERVAL * 2) {
-                            prev = cur;
-                        } else {
-                            prev += TICK_INTERVAL;
+            long deadline = System.nanoTime();
+            long nextFrame = deadline;
+            while (!Thread.currentThread().isInterrupted()) {
+                // Block outright while there is nothing to animate
+                if (isIdle()) {
+                    while (isIdle()) {
+                        LockSupport.park(this);
+                        if (Thread.currentThread().isInterrupted()) {
+                            return;
+                        }
+                    }
+                    // Don't try to catch up on the time spent paused
+                    deadline = System.nanoTime();
+                }
+
+                final long interval = getTickInterval();
+                final long now = System.nanoTime();
+                if (now - deadline < 0) {
+                    if (isInterpolating()) {
+                        // Present frames until it is time for the next tick
+                        if (now - nextFrame >= 0) {
+                            present(1 - (double) (deadline - now) / interval);
+                            nextFrame = now + frameInterval;
                         }
-                        tick();
-                        continue;
+                        LockSupport.parkNanos(this, Math.min(deadline - now, nextFrame - now));
+                    } else {
+                        LockSupport.parkNanos(this, deadline - now);
                     }
-                    Thread.sleep(1, 0);
+                    continue;
                 }
-            } catch (final InterruptedException ignored) {
+
+                // Run at most MAX_CATCH_UP_TICKS ticks back to back to catch up, and skip any that are further behind
+                final long behind = (now - deadline) / interval;
+                if (behind > MAX_CATCH_UP_TICKS) {
+                    final long skipped = behind - MAX_CATCH_UP_TICKS;
+                    skippedTicks.addAndGet(skipped);
+                    deadline += skipped * interval;
+                    log.log(Level.FINE, "Skipped {0} ticks after falling behind", skipped);
+                }
+
+                tick();
+                deadline += interval;
             }
         }, "Ticker");
         thread.setDaemon(false);
@@ -96,65 +363,272 @@ public class Manager {
             thread.join();
         } catch (InterruptedException ignored) {
         }
+
+        // Carry out whatever was queued for the next tick, such as disposing of the mascots when exiting
+        Runnable change;
+        while ((change = pending.poll()) != null) {
+            change.run();
+        }
     }
 
-    private void tick() {
+    /**
+     * Advances the environment and every {@link Mascot} by one tick.
+     * This is normally called by the ticker thread started by {@link #start()}, but it can also be called directly
+     * to drive the {@code Manager} without that thread, such as when running with the headless environment.
+     */
+    public void tick() {
+        final ManagerStats stats = ManagerStats.getInstance();
+        final long begin = stats.begin();
+
         // Update the first environmental information
-        NativeFactory.getInstance().getEnvironment().tick();
+        final Environment environment = NativeFactory.getInstance().getEnvironment();
+        final long environmentBegin = stats.begin();
+        environment.tick();
+        stats.end(ManagerStats.Phase.ENVIRONMENT, environmentBegin);
+        Script.nextTick();
+        screen = environment.getScreen().toRectangle();
+        cursor.setLocation(environment.getCursor().getX(), environment.getCursor().getY());
+
+        // Add and remove mascots, and carry out anything else that was queued since the last tick
+        Runnable change;
+        while ((change = pending.poll()) != null) {
+            change.run();
+        }
 
-        synchronized (getMascots()) {
+        if (changed) {
+            changed = false;
+            snapshot = mascots.toArray(new Mascot[0]);
+            Script.nextTick();
+        }
 
-            // Add the mascot if it should be added
-            for (final Mascot mascot : getAdded()) {
-                getMascots().add(mascot);
-            }
-            getAdded().clear();
+        final Mascot[] mascots = snapshot;
+        affordances.nextTick();
 
-            // Remove the mascot if it should be removed
-            for (final Mascot mascot : getRemoved()) {
-                getMascots().remove(mascot);
-            }
-            getRemoved().clear();
+        // Advance mascot's time
+        final ForkJoinPool pool = this.pool;
+        if (isParallel() && pool != null && mascots.length > PARALLEL_PARTITION_SIZE) {
+            tickInParallel(pool, mascots);
+        } else {
+            tick(mascots, 0, mascots.length);
+        }
 
-            // Advance mascot's time
-            for (final Mascot mascot : getMascots()) {
-                mascot.tick();
-            }
+        // Hand out the partners the mascots asked for, in the same order regardless of which thread ticked them
+        affordances.grant(mascots);
+
+        // Carry out what the mascots deferred, in the same order regardless of which thread ticked them
+        for (final Mascot mascot : mascots) {
+            mascot.runDeferred();
+        }
 
-            // Advance mascot's time
-            for (final Mascot mascot : getMascots()) {
-                mascot.apply();
+        int reducedRateCount = 0;
+        Mascot slowest = null;
+        for (final Mascot mascot : mascots) {
+            publish(mascot);
+            if (mascot.getSkippedTicks() > 0) {
+                reducedRateCount++;
             }
+            if (slowest == null || mascot.getLastTickNanos() > slowest.getLastTickNanos()) {
+                slowest = mascot;
+            }
+        }
+        this.reducedRateCount = reducedRateCount;
+        synchronized (indexLock) {
+            indexed = this.snapshot;
+            index = null;
+        }
+        if (affordances.pollChanged()) {
+            stats.recordAffordances(affordances.getCounts());
+        }
+        stats.recordReservations(affordances.getReservationCount());
+        if (slowest != null && slowest.getLastTickNanos() > 0) {
+            stats.recordSlowest(slowest, slowest.getLastTickBehavior(), slowest.getLastTickNanos());
         }
 
+        // Advance mascot's time
+        final double progress = isInterpolating() ? 0 : 1;
+        for (final Mascot mascot : mascots) {
+            mascot.apply(progress);
+        }
+
+        stats.endTick(begin, getTickInterval(), getSkippedTicks());
+
         if (isExitOnLastRemoved()) {
-            if (getMascots().isEmpty()) {
+            if (mascots.length == 0) {
                 Main.getInstance().exit();
             }
         }
     }
 
+    /**
+     * Shows every {@link Mascot} part of the way between where it was before the last tick and where it is now.
+     *
+     * @param progress how far between the two each {@link Mascot} should be shown, from 0 to 1
+     */
+    private void present(final double progress) {
+        for (final Mascot mascot : snapshot) {
+            mascot.present(Math.min(Math.max(progress, 0), 1));
+        }
+    }
+
+    /**
+     * Runs the behavior phase of a fixed-size partition of the {@link Mascot Mascots} on each task,
+     * and waits for all of them to finish. The first partition is run on the calling thread.
+     */
+    private void tickInParallel(final ForkJoinPool pool, final Mascot[] mascots) {
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>(mascots.length / PARALLEL_PARTITION_SIZE);
+        for (int start = PARALLEL_PARTITION_SIZE; start < mascots.length; start += PARALLEL_PARTITION_SIZE) {
+            final int from = start;
+            final int to = Math.min(start + PARALLEL_PARTITION_SIZE, mascots.length);
+            tasks.add(pool.submit(() -> tick(mascots, from, to)));
+        }
+
+        RuntimeException failure = null;
+        try {
+            tick(mascots, 0, PARALLEL_PARTITION_SIZE);
+        } catch (final RuntimeException e) {
+            failure = e;
+        }
+
+        // Wait for every task even if one failed, so that no mascot is still being ticked once this returns
+        for (final ForkJoinTask<?> task : tasks) {
+            try {
+                task.join();
+            } catch (final RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void tick(final Mascot[] mascots, final int from, final int to) {
+        final boolean levelOfDetail = isLevelOfDetail();
+        for (int i = from; i < to; i++) {
+            if (levelOfDetail && mascots[i].getSkippedTicks() + 1 < getTickDivisor(mascots[i])) {
+                mascots[i].skipTick();
+                continue;
+            }
+
+            ticking.set(mascots[i]);
+            try {
+                mascots[i].tick();
+            } finally {
+                ticking.remove();
+            }
+        }
+    }
+
+    /**
+     * Publishes the state of a {@link Mascot} and keeps the affordance registry up to date with it.
+     */
+    private void publish(final Mascot mascot) {
+        final List<String> before = mascot.getPublishedAffordances();
+        mascot.publish();
+        if (mascot.getPublishedAffordances() != before) {
+            affordances.update(mascot, before, mascot.getPublishedAffordances());
+        }
+    }
+
+    /**
+     * Decides how often a {@link Mascot} should be ticked while {@link #isLevelOfDetail() level of detail} is on.
+     *
+     * @return 1 to tick the {@link Mascot} every tick, or n to tick it every nth tick
+     */
+    private int getTickDivisor(final Mascot mascot) {
+        if (mascot.isDragging() || mascot.isHotspotClicked() || mascot.debugWindow != null || !mascot.getPublishedAffordances().isEmpty() ||
+                affordances.isReserving(mascot)) {
+            return 1;
+        }
+
+        final Rectangle bounds = mascot.getBounds();
+        if (cursor.x >= bounds.x - CURSOR_DISTANCE && cursor.x < bounds.x + bounds.width + CURSOR_DISTANCE &&
+                cursor.y >= bounds.y - CURSOR_DISTANCE && cursor.y < bounds.y + bounds.height + CURSOR_DISTANCE) {
+            return 1;
+        }
+
+        // Actions move a mascot by a step each tick, so one which is moving has to be ticked every tick wherever it is
+        if (mascot.getStillTicks() >= STILL_TICKS) {
+            return bounds.intersects(screen) ? STILL_TICK_DIVISOR : OFF_SCREEN_TICK_DIVISOR;
+        }
+
+        return 1;
+    }
+
+    /**
+     * Runs something which affects other {@link Mascot Mascots}, this {@code Manager} or the environment once the
+     * behavior phase is over. Deferred commands are run in the order of the {@link Mascot Mascots} which deferred them,
+     * and then in the order they were deferred, whether or not the behavior phase ran in parallel.
+     * <p>
+     * Outside of the behavior phase, the command is run straight away.
+     *
+     * @param command the command to run
+     */
+    public void defer(final Runnable command) {
+        final Mascot mascot = ticking.get();
+        if (mascot != null) {
+            mascot.defer(command);
+        } else {
+            command.run();
+        }
+    }
+
+    /**
+     * Queues something to be done by the thread running {@link #tick()} at the start of the next tick,
+     * where it cannot interfere with the {@link Mascot Mascots} being ticked. Returns straight away.
+     *
+     * @param command the command to run
+     */
+    private void runOnTicker(final Runnable command) {
+        pending.add(command);
+        wakeUp();
+    }
+
     public void add(final Mascot mascot) {
-        synchronized (getAdded()) {
-            getAdded().add(mascot);
-            getRemoved().remove(mascot);
+        if (ticking.get() != null) {
+            defer(() -> add(mascot));
+            return;
         }
+
+        pending.add(() -> {
+            if (mascots.add(mascot)) {
+                publish(mascot);
+                changed = true;
+            }
+        });
         mascot.setManager(this);
+        wakeUp();
     }
 
     public void remove(final Mascot mascot) {
-        synchronized (getAdded()) {
-            getAdded().remove(mascot);
-            getRemoved().add(mascot);
+        if (ticking.get() != null) {
+            defer(() -> remove(mascot));
+            return;
         }
+
+        pending.add(() -> {
+            if (mascots.remove(mascot)) {
+                affordances.remove(mascot);
+                changed = true;
+            }
+        });
         mascot.setManager(null);
         // Clear affordances so the mascot is not participating in any interactions, as that can cause an NPE
         mascot.getAffordances().clear();
+        wakeUp();
     }
 
+    /**
+     * Sets the behavior of every {@link Mascot} at the start of the next tick. Returns before that happens.
+     *
+     * @param name the key of the behavior's name in the schema
+     */
     public void setBehaviorAll(final String name) {
-        synchronized (getMascots()) {
-            for (final Mascot mascot : getMascots()) {
+        runOnTicker(() -> {
+            for (final Mascot mascot : mascots) {
                 try {
                     Configuration configuration = Main.getInstance().getConfiguration(mascot.getImageSet());
                     mascot.setBehavior(configuration.buildBehavior(configuration.getSchema().getString(name)));
@@ -164,12 +638,20 @@ public class Manager {
                     mascot.dispose();
                 }
             }
-        }
+        });
     }
 
+    /**
+     * Sets the behavior of every {@link Mascot} which uses the specified image set at the start of the next tick.
+     * Returns before that happens.
+     *
+     * @param configuration the configuration to build the behavior from
+     * @param name          the key of the behavior's name in the schema
+     * @param imageSet      the image set for which to check
+     */
     public void setBehaviorAll(final Configuration configuration, final String name, String imageSet) {
-        synchronized (getMascots()) {
-            for (final Mascot mascot : getMascots()) {
+        runOnTicker(() -> {
+            for (final Mascot mascot : mascots) {
                 try {
                     if (mascot.getImageSet().equals(imageSet)) {
                         mascot.setBehavior(configuration.buildBehavior(configuration.getSchema().getString(name)));
@@ -180,115 +662,114 @@ public class Manager {
                     mascot.dispose();
                 }
             }
-        }
+        });
     }
 
     /**
-     * Dismisses mascots until one remains.
+     * Dismisses mascots until one remains, at the start of the next tick. Returns before they are dismissed.
      */
     public void remainOne() {
-        synchronized (getMascots()) {
-            int totalMascots = getMascots().size();
+        runOnTicker(() -> {
+            final List<Mascot> mascots = new ArrayList<>(this.mascots);
+            int totalMascots = mascots.size();
             for (int i = totalMascots - 1; i > 0; i--) {
-                getMascots().get(i).dispose();
+                mascots.get(i).dispose();
             }
-        }
+        });
     }
 
     /**
-     * Dismisses all mascots except for the one specified.
+     * Dismisses all mascots except for the one specified, at the start of the next tick.
+     * Returns before they are dismissed.
      *
      * @param mascot the mascot to not dismiss
      */
     public void remainOne(Mascot mascot) {
-        synchronized (getMascots()) {
-            int totalMascots = getMascots().size();
+        runOnTicker(() -> {
+            final List<Mascot> mascots = new ArrayList<>(this.mascots);
+            int totalMascots = mascots.size();
             for (int i = totalMascots - 1; i >= 0; i--) {
-                if (!getMascots().get(i).equals(mascot)) {
-                    getMascots().get(i).dispose();
+                if (!mascots.get(i).equals(mascot)) {
+                    mascots.get(i).dispose();
                 }
             }
-        }
+        });
     }
 
     /**
-     * Dismisses mascots which use the specified image set until one mascot remains.
+     * Dismisses mascots which use the specified image set until one mascot remains, at the start of the next tick.
+     * Returns before they are dismissed.
      *
      * @param imageSet the image set for which to check
      */
     public void remainOne(String imageSet) {
-        synchronized (getMascots()) {
-            int totalMascots = getMascots().size();
+        runOnTicker(() -> {
+            final List<Mascot> mascots = new ArrayList<>(this.mascots);
+            int totalMascots = mascots.size();
             boolean isFirst = true;
             for (int i = totalMascots - 1; i >= 0; i--) {
-                Mascot m = getMascots().get(i);
+                Mascot m = mascots.get(i);
                 if (m.getImageSet().equals(imageSet) && isFirst) {
                     isFirst = false;
                 } else if (m.getImageSet().equals(imageSet) && !isFirst) {
                     m.dispose();
                 }
             }
-        }
+        });
     }
 
     /**
-     * Dismisses mascots which use the specified image set until only the specified mascot remains.
+     * Dismisses mascots which use the specified image set until only the specified mascot remains,
+     * at the start of the next tick. Returns before they are dismissed.
      *
      * @param imageSet the image set for which to check
      * @param mascot   the mascot to not dismiss
      */
     public void remainOne(String imageSet, Mascot mascot) {
-        synchronized (getMascots()) {
-            int totalMascots = getMascots().size();
+        runOnTicker(() -> {
+            final List<Mascot> mascots = new ArrayList<>(this.mascots);
+            int totalMascots = mascots.size();
             for (int i = totalMascots - 1; i >= 0; i--) {
-                Mascot m = getMascots().get(i);
+                Mascot m = mascots.get(i);
                 if (m.getImageSet().equals(imageSet) && !m.equals(mascot)) {
                     m.dispose();
                 }
             }
-        }
+        });
     }
 
     /**
-     * Dismisses all mascots which use the specified image set.
+     * Dismisses all mascots which use the specified image set, at the start of the next tick.
+     * Returns before they are dismissed.
      *
      * @param imageSet the image set for which to check
      */
     public void remainNone(String imageSet) {
-        synchronized (getMascots()) {
-            int totalMascots = getMascots().size();
+        runOnTicker(() -> {
+            final List<Mascot> mascots = new ArrayList<>(this.mascots);
+            int totalMascots = mascots.size();
             for (int i = totalMascots - 1; i >= 0; i--) {
-                Mascot m = getMascots().get(i);
+                Mascot m = mascots.get(i);
                 if (m.getImageSet().equals(imageSet)) {
                     m.dispose();
                 }
             }
-        }
+        });
     }
 
     public void togglePauseAll() {
-        synchronized (getMascots()) {
-            boolean isPaused = false;
-            if (!getMascots().isEmpty()) {
-                isPaused = getMascots().get(0).isPaused();
-            }
+        final Mascot[] mascots = snapshot;
+        final boolean isPaused = mascots.length > 0 && mascots[0].isPaused();
 
-            for (final Mascot mascot : getMascots()) {
-                mascot.setPaused(!isPaused);
-            }
+        for (final Mascot mascot : mascots) {
+            mascot.setPaused(!isPaused);
         }
+        wakeUp();
     }
 
     public boolean isPaused() {
-        boolean isPaused = false;
-
-        synchronized (getMascots()) {
-            if (!getMascots().isEmpty()) {
-                isPaused = getMascots().get(0).isPaused();
-            }
-        }
-
-        return isPaused;
+        final Mascot[] mascots = snapshot;
+        return mascots.length > 0 && mascots[0].isPaused();
     }
 
     public int getCount() {
@@ -296,67 +777,127 @@ public class Manager {
     }
 
     public int getCount(String imageSet) {
-        synchronized (getMascots()) {
-            if (imageSet == null) {
-                return getMascots().size();
-            } else {
-                return (int) getMascots().stream().filter(m -> m.getImageSet().equals(imageSet)).count();
-            }
+        final Mascot[] mascots = snapshot;
+        if (imageSet == null) {
+            return mascots.length;
+        } else {
+            return (int) Arrays.stream(mascots).filter(m -> m.getPublishedImageSet().equals(imageSet)).count();
         }
     }
 
-    private List<Mascot> getMascots() {
-        return mascots;
+    /**
+     * Returns a Mascot with the given affordance.
+     *
+     * @param affordance the affordance for which to check
+     * @return a {@link WeakReference} to a mascot with the required affordance, or {@code null} if none was found
+     */
+    public WeakReference<Mascot> getMascotWithAffordance(String affordance) {
+        final Mascot mascot = affordances.getAny(affordance);
+        return mascot != null ? new WeakReference<>(mascot) : null;
     }
 
-    private Set<Mascot> getAdded() {
-        return added;
+    /**
+     * Finds a Mascot with the given affordance and reserves it, so that no other Mascot scanning for the same
+     * affordance picks it as well. The reservation has to be renewed every tick with {@link #renewReservation}.
+     * Only call this during the behavior phase.
+     * <p>
+     * The reservation is granted once every mascot has been ticked. If several mascots pick the same one in a tick,
+     * the first of them in the list keeps it, and the others are told when they next renew it.
+     *
+     * @param affordance the affordance for which to check
+     * @param scanner    the mascot looking for a partner
+     * @return a {@link WeakReference} to the mascot picked, or {@code null} if every mascot with the affordance is taken
+     */
+    public WeakReference<Mascot> reserveMascotWithAffordance(String affordance, Mascot scanner) {
+        final Mascot mascot = affordances.reserve(affordance, scanner);
+        return mascot != null ? new WeakReference<>(mascot) : null;
     }
 
-    private Set<Mascot> getRemoved() {
-        return removed;
+    /**
+     * Renews a reservation made with {@link #reserveMascotWithAffordance}. Only call this during the behavior phase.
+     *
+     * @param scanner the mascot which made the reservation
+     * @param target  the reserved mascot
+     * @return {@code false} if another mascot has reserved the target, either because it was picked by a mascot
+     * before this one in the same tick or because the reservation lapsed
+     */
+    public boolean renewReservation(Mascot scanner, Mascot target) {
+        return affordances.renew(scanner, target);
     }
 
     /**
-     * Returns a Mascot with the given affordance.
-     *
-     * @param affordance the affordance for which to check
-     * @return a {@link WeakReference} to a mascot with the required affordance, or {@code null} if none was found
+     * Returns where each {@link Mascot} was at the end of the last tick, building the index the first time
+     * it is asked for after each tick.
      */
-    public WeakReference<Mascot> getMascotWithAffordance(String affordance) {
-        synchronized (getMascots()) {
-            for (final Mascot mascot : getMascots()) {
-                if (mascot.getAffordances().contains(affordance)) {
-                    return new WeakReference<>(mascot);
+    private SpatialIndex getIndex() {
+        SpatialIndex index = this.index;
+        if (index == null) {
+            synchronized (indexLock) {
+                index = this.index;
+                if (index == null) {
+                    index = new SpatialIndex(indexed);
+                    this.index = index;
                 }
             }
         }
-
-        return null;
+        return index;
     }
 
     public boolean hasOverlappingMascotsAtPoint(Point anchor) {
-        int count = 0;
+        return getIndex().countAt(anchor) > 1;
+    }
 
-        synchronized (getMascots()) {
-            for (final Mascot mascot : getMascots()) {
-                if (mascot.getAnchor().equals(anchor)) {
-                    count++;
-                }
-                if (count > 1) {
-                    return true;
-                }
-            }
-        }
+    /**
+     * Returns the {@link Mascot Mascots} whose bounds contain the given point, as of the end of the last tick.
+     *
+     * @param point the point to look at
+     * @return the {@link Mascot Mascots} at the point, in no particular order
+     */
+    public List<Mascot> getMascotsAt(Point point) {
+        return getIndex().getMascotsAt(point);
+    }
 
-        return false;
+    /**
+     * Returns the {@link Mascot Mascots} whose bounds overlap the given area, as of the end of the last tick.
+     *
+     * @param area the area to look in
+     * @return the {@link Mascot Mascots} in the area, in no particular order
+     */
+    public List<Mascot> getMascotsInRange(Rectangle area) {
+        return getIndex().getMascotsIn(area);
+    }
+
+    /**
+     * Returns the {@link Mascot} whose anchor is closest to the given point, as of the end of the last tick.
+     *
+     * @param point the point to search from
+     * @return the closest {@link Mascot}, or {@code null} if there are none
+     */
+    public Mascot nearest(Point point) {
+        return getIndex().getNearest(point, null);
     }
 
+    /**
+     * Returns the {@link Mascot} closest to another, as of the end of the last tick.
+     * Scripts can call this as {@code mascot.manager.nearest(mascot)}.
+     *
+     * @param mascot the {@link Mascot} to search from
+     * @return the closest other {@link Mascot}, or {@code null} if there are no others
+     */
+    public Mascot nearest(Mascot mascot) {
+        return getIndex().getNearest(mascot.getPublishedAnchor(), mascot);
+    }
+
+    /**
+     * Dismisses all mascots at the start of the next tick, or as the ticker thread stops if {@link #stop()} is called
+     * first. Returns before they are dismissed.
+     */
     public void disposeAll() {
-        synchronized (getMascots()) {
-            for (int i = getMascots().size() - 1; i >= 0; i--) {
-                getMascots().get(i).dispose();
+        runOnTicker(() -> {
+            final List<Mascot> mascots = new ArrayList<>(this.mascots);
+            for (int i = mascots.size() - 1; i >= 0; i--) {
+                mascots.get(i).dispose();
             }
-        }
+        });
     }
 }
@@ -0,0 +1,363 @@
+package com.group_finity.mascot;
+
+import com.group_finity.mascot.behavior.Behavior;
+import com.group_finity.mascot.script.Script;
+import com.group_finity.mascot.script.ScriptProfiler;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings of each phase of {@link Manager#tick()}, kept for the whole process.
+ * <p>
+ * Each instrumented piece of code calls {@link #begin()} before and {@link #end(Phase, long)} after it runs.
+ * When disabled, {@link #begin()} returns without reading the clock and {@link #end(Phase, long)} does nothing.
+ * When enabled, each call costs two calls to {@link System#nanoTime()} and a few atomic updates. Every script and
+ * every behavior step is timed, so that adds up, and it is off unless turned on with {@code TickStatistics=true}
+ * or through JMX. The phases run for each {@link Mascot} in the behavior phase are recorded into striped histograms,
+ * so that threads ticking {@link Mascot Mascots} in parallel do not contend for the same counts.
+ */
+public class ManagerStats implements ManagerStatsMBean {
+    public static final String OBJECT_NAME = "com.group_finity.mascot:type=ManagerStats";
+
+    private static final ManagerStats instance = new ManagerStats();
+
+    public static ManagerStats getInstance() {
+        return instance;
+    }
+
+    /**
+     * The parts of a tick which are timed.
+     */
+    public enum Phase {
+        /**
+         * The whole of {@link Manager#tick()}.
+         */
+        TICK,
+        /**
+         * Updating the environment at the start of each tick.
+         */
+        ENVIRONMENT,
+        /**
+         * Advancing the behavior of a single {@link Mascot}.
+         */
+        BEHAVIOR,
+        /**
+         * Choosing and building the next behavior of a {@link Mascot}.
+         */
+        BUILD_BEHAVIOR,
+        /**
+         * Evaluating a single script.
+         */
+        SCRIPT,
+        /**
+         * Compiling a script which was not in the cache.
+         */
+        COMPILE,
+        /**
+         * Displaying a single {@link Mascot}.
+         */
+        APPLY
+    }
+
+    private volatile boolean enabled = false;
+
+    private final Map<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+
+    private final AtomicLong overrunCount = new AtomicLong();
+
+    private volatile long skippedTickCount;
+
+    /**
+     * The {@link Mascot} which took the longest in the last tick. Only described when asked for,
+     * so that nothing has to be formatted every tick.
+     */
+    private volatile Sample slowestMascot;
+
+    /**
+     * The {@link Mascot} which took the longest in any tick since the last {@link #reset()}.
+     */
+    private volatile Sample slowestBehavior;
+
+    private volatile Map<String, Integer> affordanceCounts = Collections.emptyMap();
+
+    private volatile int reservationCount;
+
+    private final LongAdder scriptCacheHits = new LongAdder();
+
+    private final LongAdder behaviorPoolHits = new LongAdder();
+
+    private final LongAdder behaviorPoolMisses = new LongAdder();
+
+    private static final class Sample {
+        private final Mascot mascot;
+        private final Behavior behavior;
+        private final long nanos;
+
+        private Sample(final Mascot mascot, final Behavior behavior, final long nanos) {
+            this.mascot = mascot;
+            this.behavior = behavior;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s (%s): %.3f ms", mascot, behavior, toMillis(nanos));
+        }
+    }
+
+    private ManagerStats() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        for (Phase phase : Phase.values()) {
+            final boolean perMascot = phase == Phase.BEHAVIOR || phase == Phase.BUILD_BEHAVIOR || phase == Phase.SCRIPT;
+            histograms.put(phase, new LatencyHistogram(perMascot ? processors : 1));
+        }
+    }
+
+    /**
+     * @return the time to pass to {@link #end(Phase, long)}
+     */
+    public long begin() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time taken by a phase.
+     *
+     * @param phase the phase which has ended
+     * @param begin the value returned by {@link #begin()} when the phase started
+     * @return the time taken, in nanoseconds, or 0 if disabled
+     */
+    public long end(final Phase phase, final long begin) {
+        if (begin == 0 || !enabled) {
+            return 0;
+        }
+
+        final long duration = System.nanoTime() - begin;
+        histograms.get(phase).record(duration);
+        return duration;
+    }
+
+    /**
+     * Records the end of a tick.
+     *
+     * @param begin        the value returned by {@link #begin()} when the tick started
+     * @param interval     the tick interval, in nanoseconds
+     * @param skippedTicks the number of ticks the ticker thread has skipped so far
+     */
+    void endTick(final long begin, final long interval, final long skippedTicks) {
+        if (begin != 0 && enabled) {
+            final long duration = System.nanoTime() - begin;
+            histograms.get(Phase.TICK).record(duration);
+            if (duration > interval) {
+                overrunCount.incrementAndGet();
+            }
+            skippedTickCount = skippedTicks;
+        }
+    }
+
+    /**
+     * Records which {@link Mascot} took the longest in the last tick.
+     */
+    void recordSlowest(final Mascot mascot, final Behavior behavior, final long nanos) {
+        if (!enabled) {
+            return;
+        }
+
+        final Sample slowest = new Sample(mascot, behavior, nanos);
+        slowestMascot = slowest;
+        final Sample slowestEver = slowestBehavior;
+        if (slowestEver == null || nanos > slowestEver.nanos) {
+            slowestBehavior = slowest;
+        }
+    }
+
+    /**
+     * Records how many {@link Mascot Mascots} are broadcasting each affordance. Only called when that has changed.
+     */
+    void recordAffordances(final Map<String, Integer> counts) {
+        affordanceCounts = Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Records how many {@link Mascot Mascots} have been reserved by others scanning for a partner.
+     */
+    void recordReservations(final int count) {
+        reservationCount = count;
+    }
+
+    /**
+     * Records that a script was found in the cache instead of being compiled.
+     */
+    public void recordScriptCacheHit() {
+        if (enabled) {
+            scriptCacheHits.increment();
+        }
+    }
+
+    /**
+     * Records whether a chosen behavior was found in a mascot's {@link com.group_finity.mascot.behavior.BehaviorPool}
+     * or had to be built.
+     */
+    public void recordBehaviorPool(final boolean hit) {
+        if (enabled) {
+            (hit ? behaviorPoolHits : behaviorPoolMisses).increment();
+        }
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    LatencyHistogram getHistogram(final Phase phase) {
+        return histograms.get(phase);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getTickCount() {
+        return histograms.get(Phase.TICK).getCount();
+    }
+
+    @Override
+    public long getOverrunCount() {
+        return overrunCount.get();
+    }
+
+    @Override
+    public long getSkippedTickCount() {
+        return skippedTickCount;
+    }
+
+    @Override
+    public double getTickP50() {
+        return toMillis(histograms.get(Phase.TICK).getPercentile(50));
+    }
+
+    @Override
+    public double getTickP99() {
+        return toMillis(histograms.get(Phase.TICK).getPercentile(99));
+    }
+
+    @Override
+    public double getTickMax() {
+        return toMillis(histograms.get(Phase.TICK).getMax());
+    }
+
+    @Override
+    public String[] getPhaseSummaries() {
+        final String[] summaries = new String[Phase.values().length];
+        for (Phase phase : Phase.values()) {
+            final LatencyHistogram histogram = histograms.get(phase);
+            summaries[phase.ordinal()] = String.format(Locale.ROOT, "%s: count=%d mean=%.3f p50=%.3f p99=%.3f max=%.3f",
+                    phase, histogram.getCount(), histogram.getMean() / TimeUnit.MILLISECONDS.toNanos(1),
+                    toMillis(histogram.getPercentile(50)), toMillis(histogram.getPercentile(99)), toMillis(histogram.getMax()));
+        }
+        return summaries;
+    }
+
+    @Override
+    public String getSlowestMascot() {
+        final Sample slowest = slowestMascot;
+        return slowest != null ? slowest.toString() : "";
+    }
+
+    @Override
+    public String getSlowestBehavior() {
+        final Sample slowest = slowestBehavior;
+        return slowest != null ? slowest.toString() : "";
+    }
+
+    @Override
+    public String[] getAffordanceCounts() {
+        final List<String> counts = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : affordanceCounts.entrySet()) {
+            counts.add(entry.getKey() + ": " + entry.getValue());
+        }
+        return counts.toArray(new String[0]);
+    }
+
+    @Override
+    public int getReservationCount() {
+        return reservationCount;
+    }
+
+    @Override
+    public double getScriptCacheHitRate() {
+        final long hits = scriptCacheHits.sum();
+        final long total = hits + histograms.get(Phase.COMPILE).getCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public int getScriptCacheSize() {
+        return Script.getCacheSize();
+    }
+
+    @Override
+    public long getBehaviorPoolHits() {
+        return behaviorPoolHits.sum();
+    }
+
+    @Override
+    public long getBehaviorPoolMisses() {
+        return behaviorPoolMisses.sum();
+    }
+
+    @Override
+    public double getBehaviorPoolHitRate() {
+        final long hits = behaviorPoolHits.sum();
+        final long total = hits + behaviorPoolMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public boolean isScriptProfilingEnabled() {
+        return ScriptProfiler.getInstance().isEnabled();
+    }
+
+    @Override
+    public void setScriptProfilingEnabled(final boolean enabled) {
+        ScriptProfiler.getInstance().setEnabled(enabled);
+    }
+
+    @Override
+    public String[] getHottestScripts(final int limit) {
+        return ScriptProfiler.getInstance().getHottest(limit);
+    }
+
+    @Override
+    public String[] getSlowestScripts(final int limit) {
+        return ScriptProfiler.getInstance().getSlowest(limit);
+    }
+
+    @Override
+    public double getPercentile(final String phase, final double percentile) {
+        return toMillis(histograms.get(Phase.valueOf(phase.toUpperCase(Locale.ROOT))).getPercentile(percentile));
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        overrunCount.set(0);
+        scriptCacheHits.reset();
+        behaviorPoolHits.reset();
+        behaviorPoolMisses.reset();
+        ScriptProfiler.getInstance().reset();
+        slowestMascot = null;
+        slowestBehavior = null;
+    }
+}
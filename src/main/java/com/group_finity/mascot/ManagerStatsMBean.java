@@ -0,0 +1,112 @@
+package com.group_finity.mascot;
+
+/**
+ * Management interface of {@link ManagerStats}, which is registered with the platform MBean server as
+ * {@value ManagerStats#OBJECT_NAME} so that it can be read with JConsole or any other JMX client.
+ * All durations are in milliseconds.
+ */
+public interface ManagerStatsMBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getTickCount();
+
+    /**
+     * @return the number of ticks which took longer than the tick interval
+     */
+    long getOverrunCount();
+
+    /**
+     * @return the number of ticks the ticker thread skipped because it fell too far behind
+     */
+    long getSkippedTickCount();
+
+    double getTickP50();
+
+    double getTickP99();
+
+    double getTickMax();
+
+    /**
+     * @return one line per phase, with the number of samples and the mean, 50th percentile, 99th percentile and maximum duration
+     */
+    String[] getPhaseSummaries();
+
+    /**
+     * @return the mascot whose behavior took the longest in the last tick, with its behavior and how long it took
+     */
+    String getSlowestMascot();
+
+    /**
+     * @return the behavior which has taken the longest in a single tick since the statistics were last reset,
+     * with the mascot it belonged to and how long it took
+     */
+    String getSlowestBehavior();
+
+    /**
+     * @return one line per affordance currently being broadcast, with the number of mascots broadcasting it
+     */
+    String[] getAffordanceCounts();
+
+    /**
+     * @return the number of mascots currently reserved by mascots scanning for a partner
+     */
+    int getReservationCount();
+
+    /**
+     * @return the fraction of scripts which were found in the cache instead of being compiled, from 0 to 1
+     */
+    double getScriptCacheHitRate();
+
+    /**
+     * @return the number of distinct scripts compiled so far
+     */
+    int getScriptCacheSize();
+
+    /**
+     * @return the number of chosen behaviors which were reused from the mascot's pool instead of being built
+     */
+    long getBehaviorPoolHits();
+
+    /**
+     * @return the number of chosen behaviors which had to be built because the mascot's pool had none to reuse
+     */
+    long getBehaviorPoolMisses();
+
+    /**
+     * @return the fraction of chosen behaviors which were reused from the mascot's pool, from 0 to 1
+     */
+    double getBehaviorPoolHitRate();
+
+    boolean isScriptProfilingEnabled();
+
+    /**
+     * Turns the script profiler on or off. It is off unless {@code ScriptProfiling} is set in the settings,
+     * as it slows down every script.
+     */
+    void setScriptProfilingEnabled(boolean enabled);
+
+    /**
+     * @param limit the number of scripts to list
+     * @return the scripts which have taken the most time in total while profiling, busiest first, each with the number
+     * of evaluations, the total, mean and maximum duration, and the image sets, behaviors and actions which evaluated it most
+     */
+    String[] getHottestScripts(int limit);
+
+    /**
+     * @param limit the number of scripts to list
+     * @return the scripts which have taken the longest in a single evaluation while profiling, slowest first,
+     * in the same form as {@link #getHottestScripts(int)}
+     */
+    String[] getSlowestScripts(int limit);
+
+    /**
+     * @param phase      the name of a {@link ManagerStats.Phase}
+     * @param percentile a value between 0 and 100
+     * @return the duration below which the given percentage of samples of the phase fall
+     */
+    double getPercentile(String phase, double percentile);
+
+    void reset();
+}
@@ -1,6 +1,7 @@
 package com.group_finity.mascot;
 
 import com.group_finity.mascot.behavior.Behavior;
+import com.group_finity.mascot.behavior.BehaviorPool;
 import com.group_finity.mascot.config.Configuration;
 import com.group_finity.mascot.environment.Area;
 import com.group_finity.mascot.environment.MascotEnvironment;
@@ -20,7 +21,9 @@ import java.awt.*;
 import java.awt.event.*;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -45,6 +48,12 @@ public class Mascot implements Serializable {
 
     private static AtomicInteger lastId = new AtomicInteger();
 
+    /**
+     * How far, in pixels, a {@code Mascot} can move in one tick and still be shown moving smoothly.
+     * Anything further is treated as a jump, and the {@code Mascot} is shown at its new position straight away.
+     */
+    private static final int MAX_INTERPOLATED_DISTANCE = 256;
+
     private final int id;
 
     private String imageSet;
@@ -64,6 +73,19 @@ public class Mascot implements Serializable {
      */
     private Point anchor = new Point(0, 0);
 
+    /**
+     * The anchor as it was at the start of the last tick, used to show the {@code Mascot}
+     * between where it was and where it is when frames are presented in between ticks.
+     */
+    private final Point previousAnchor = new Point(anchor);
+
+    /**
+     * What was last sent to the window, so that it is only sent again when something has changed.
+     */
+    private Rectangle presentedBounds = null;
+
+    private MascotImage presentedImage = null;
+
     /**
      * The image to display.
      */
@@ -80,17 +102,49 @@ public class Mascot implements Serializable {
      */
     private Behavior behavior = null;
 
+    private final BehaviorPool behaviorPool = new BehaviorPool();
+
+    /**
+     * The random numbers used to choose this {@code Mascot}'s behaviors, kept apart from those of the others
+     * so that the choices do not depend on the order in which the {@code Mascot Mascots} are ticked.
+     */
+    private final Random random = new Random();
+
     /**
      * Increases with each tick of the timer.
      */
     private int time = 0;
 
+    /**
+     * The number of ticks {@link Manager} has skipped since this {@code Mascot} was last ticked.
+     * These are added to {@link #time} on the next tick.
+     */
+    private int skippedTicks = 0;
+
+    /**
+     * The number of ticks in a row this {@code Mascot} has neither moved nor changed image.
+     */
+    private int stillTicks = 0;
+
+    private Point lastAnchor = null;
+
+    private MascotImage lastImage = null;
+
+    /**
+     * How long the last call to {@link Behavior#next()} took and which {@link Behavior} it was called on,
+     * for {@link ManagerStats}.
+     */
+    private long lastTickNanos = 0;
+
+    private Behavior lastTickBehavior = null;
+
     /**
      * Whether the animation is running.
      */
     private boolean animating = true;
 
-    private boolean paused = false;
+    // Read by the ticker thread to decide whether it can block, but set from the EDT
+    private volatile boolean paused = false;
 
     /**
      * Set by behaviours when the {@code Mascot} is being dragged by the mouse cursor,
@@ -108,6 +162,30 @@ public class Mascot implements Serializable {
 
     private List<Hotspot> hotspots = new ArrayList<>(5);
 
+    /**
+     * The anchor, bounds, affordances and image set as they were at the end of the last behavior phase.
+     * Other {@code Mascots} see these instead of the live values, so that what they see does not depend on
+     * whether this {@code Mascot} has already been ticked, or is being ticked on another thread.
+     */
+    private volatile Point publishedAnchor = anchor;
+
+    private volatile List<String> publishedAffordances = Collections.emptyList();
+
+    private volatile String publishedImageSet;
+
+    private volatile Rectangle publishedBounds = new Rectangle();
+
+    /**
+     * The image {@link #publishedBounds} were worked out from, so that they are only worked out again
+     * when this {@code Mascot} has moved or its image has changed.
+     */
+    private MascotImage publishedBoundsImage;
+
+    /**
+     * Commands deferred by {@link Manager#defer(Runnable)} while this {@code Mascot} was being ticked.
+     */
+    private final List<Runnable> deferred = new ArrayList<>(0);
+
     /**
      * Set by behaviours when the user has triggered a hotspot on this {@code Mascot},
      * so that the {@code Mascot} knows to check for any new hotspots that emerge while
@@ -118,6 +196,7 @@ public class Mascot implements Serializable {
     public Mascot(final String imageSet) {
         id = lastId.incrementAndGet();
         this.imageSet = imageSet;
+        publishedImageSet = imageSet;
 
         log.log(Level.INFO, "Created mascot \"{0}\" with image set \"{1}\"", new Object[]{this, imageSet});
 
@@ -320,17 +399,38 @@ public class Mascot implements Serializable {
     }
 
     void tick() {
+        behaviorPool.recycle();
+        lastTickNanos = 0;
+        previousAnchor.setLocation(anchor);
         if (isAnimating()) {
             if (getBehavior() != null) {
+                // Catch up on any ticks this mascot sat out
+                if (skippedTicks > 0) {
+                    setTime(getTime() + skippedTicks);
+                    skippedTicks = 0;
+                }
+
+                final Behavior behavior = getBehavior();
+                final long begin = ManagerStats.getInstance().begin();
                 try {
-                    getBehavior().next();
+                    behavior.next();
                 } catch (final CantBeAliveException e) {
                     log.log(Level.SEVERE, "Could not get next behavior for mascot \"" + this + "\"", e);
                     Main.showError(Main.getInstance().getLanguageBundle().getString("CouldNotGetNextBehaviourErrorMessage") + "\n" + e.getMessage() + "\n" + Main.getInstance().getLanguageBundle().getString("SeeLogForDetails"));
                     dispose();
                 }
+                lastTickNanos = ManagerStats.getInstance().end(ManagerStats.Phase.BEHAVIOR, begin);
+                lastTickBehavior = behavior;
 
                 setTime(getTime() + 1);
+
+                if (anchor.equals(lastAnchor) && image == lastImage) {
+                    stillTicks++;
+                } else {
+                    stillTicks = 0;
+                    lastAnchor = anchor;
+                    lastImage = image;
+                }
             }
 
             if (debugWindow != null) {
@@ -358,28 +458,81 @@ public class Mascot implements Serializable {
         }
     }
 
-    public void apply() {
-        if (isAnimating()) {
-            // Make sure there's an image
-            if (getImage() != null) {
-                // Set the window region
-                getWindow().asComponent().setBounds(getBounds());
+    /**
+     * Called by {@link Manager} instead of {@link #tick()} on ticks this {@code Mascot} sits out.
+     */
+    void skipTick() {
+        previousAnchor.setLocation(anchor);
+        if (isAnimating() && getBehavior() != null) {
+            skippedTicks++;
+        }
+    }
 
-                // Set Images
-                getWindow().setImage(getImage().getImage());
+    long getLastTickNanos() {
+        return lastTickNanos;
+    }
 
-                // Display
-                if (!getWindow().asComponent().isVisible()) {
-                    getWindow().asComponent().setVisible(true);
-                }
+    Behavior getLastTickBehavior() {
+        return lastTickBehavior;
+    }
 
-                // Redraw
-                getWindow().updateImage();
-            } else {
-                if (getWindow().asComponent().isVisible()) {
-                    getWindow().asComponent().setVisible(false);
-                }
-            }
+    int getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    int getStillTicks() {
+        return stillTicks;
+    }
+
+    void defer(final Runnable command) {
+        deferred.add(command);
+    }
+
+    /**
+     * Runs the commands deferred while this {@code Mascot} was being ticked, in the order they were deferred.
+     */
+    void runDeferred() {
+        if (deferred.isEmpty()) {
+            return;
+        }
+
+        final List<Runnable> commands = new ArrayList<>(deferred);
+        deferred.clear();
+        for (final Runnable command : commands) {
+            command.run();
+        }
+    }
+
+    /**
+     * Makes the current anchor, bounds, affordances and image set visible to other {@code Mascots}.
+     */
+    void publish() {
+        final MascotImage image = getImage();
+        if (image == null || image != publishedBoundsImage || anchor != publishedAnchor) {
+            publishedBounds = getBounds();
+            publishedBoundsImage = image;
+        }
+        publishedAnchor = anchor;
+        if (!affordances.equals(publishedAffordances)) {
+            publishedAffordances = affordances.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(affordances));
+        }
+        publishedImageSet = imageSet;
+    }
+
+    public void apply() {
+        apply(1);
+    }
+
+    /**
+     * Shows this {@code Mascot} and plays its sound. This is done once per tick.
+     *
+     * @param progress where to show this {@code Mascot} between its anchor at the start of the last tick (0)
+     *                 and its current anchor (1)
+     */
+    void apply(final double progress) {
+        final long begin = ManagerStats.getInstance().begin();
+        if (isAnimating()) {
+            present(progress);
 
             // play sound if requested
             if (!Sounds.isMuted() && sound != null && Sounds.contains(sound)) {
@@ -393,6 +546,68 @@ public class Mascot implements Serializable {
                 }
             }
         }
+        ManagerStats.getInstance().end(ManagerStats.Phase.APPLY, begin);
+    }
+
+    /**
+     * Moves the window to where this {@code Mascot} should be shown and displays its current image.
+     * Nothing is sent to the window if neither its position nor its image have changed since it was last shown.
+     *
+     * @param progress where to show this {@code Mascot} between its anchor at the start of the last tick (0)
+     *                 and its current anchor (1)
+     */
+    void present(final double progress) {
+        if (!isAnimating()) {
+            return;
+        }
+
+        // Make sure there's an image
+        if (getImage() != null) {
+            final Rectangle bounds = getBounds(progress);
+            final boolean visible = getWindow().asComponent().isVisible();
+            if (visible && getImage() == presentedImage && bounds.equals(presentedBounds)) {
+                return;
+            }
+
+            // Set the window region
+            getWindow().asComponent().setBounds(bounds);
+
+            // Set Images
+            getWindow().setImage(getImage().getImage());
+
+            // Display
+            if (!visible) {
+                getWindow().asComponent().setVisible(true);
+            }
+
+            // Redraw
+            getWindow().updateImage();
+
+            presentedBounds = bounds;
+            presentedImage = getImage();
+        } else {
+            if (getWindow().asComponent().isVisible()) {
+                getWindow().asComponent().setVisible(false);
+            }
+            presentedImage = null;
+        }
+    }
+
+    /**
+     * @param progress how far between its anchor at the start of the last tick (0) and its current anchor (1)
+     *                 this {@code Mascot} should be shown
+     * @return the bounds of this {@code Mascot} at that point
+     */
+    private Rectangle getBounds(final double progress) {
+        final int dx = anchor.x - previousAnchor.x;
+        final int dy = anchor.y - previousAnchor.y;
+        if (progress >= 1 || isDragging() || Math.abs(dx) > MAX_INTERPOLATED_DISTANCE || Math.abs(dy) > MAX_INTERPOLATED_DISTANCE) {
+            return getBounds();
+        }
+
+        final int x = previousAnchor.x + (int) Math.round(dx * progress);
+        final int y = previousAnchor.y + (int) Math.round(dy * progress);
+        return new Rectangle(x - getImage().getCenter().x, y - getImage().getCenter().y, getImage().getSize().width, getImage().getSize().height);
     }
 
     public void dispose() {
@@ -478,10 +693,30 @@ public class Mascot implements Serializable {
     }
 
     public void setBehavior(final Behavior behavior) throws CantBeAliveException {
+        final Behavior previous = this.behavior;
         this.behavior = behavior;
+        if (previous != null && previous != behavior) {
+            behaviorPool.retire(previous);
+        }
         this.behavior.init(this);
     }
 
+    /**
+     * @return the behaviors this {@code Mascot} has finished with, for {@link Configuration} to reuse
+     */
+    public BehaviorPool getBehaviorPool() {
+        return behaviorPool;
+    }
+
+    /**
+     * Only use this while this {@code Mascot} is being ticked.
+     *
+     * @return the random numbers to use for this {@code Mascot}
+     */
+    public Random getRandom() {
+        return random;
+    }
+
     public int getCount() {
         return manager != null ? getManager().getCount(imageSet) : 0;
     }
@@ -510,6 +745,34 @@ public class Mascot implements Serializable {
         return affordances;
     }
 
+    /**
+     * @return the anchor as it was at the end of the last behavior phase
+     */
+    public Point getPublishedAnchor() {
+        return publishedAnchor;
+    }
+
+    /**
+     * @return the bounds as they were at the end of the last behavior phase
+     */
+    Rectangle getPublishedBounds() {
+        return publishedBounds;
+    }
+
+    /**
+     * @return the affordances as they were at the end of the last behavior phase
+     */
+    public List<String> getPublishedAffordances() {
+        return publishedAffordances;
+    }
+
+    /**
+     * @return the image set as it was at the end of the last behavior phase
+     */
+    public String getPublishedImageSet() {
+        return publishedImageSet;
+    }
+
     public List<Hotspot> getHotspots() {
         return hotspots;
     }
@@ -536,6 +799,9 @@ public class Mascot implements Serializable {
 
     public void setPaused(final boolean paused) {
         this.paused = paused;
+        if (!paused && getManager() != null) {
+            getManager().wakeUp();
+        }
     }
 
     public boolean isDragging() {
@@ -32,6 +32,8 @@ public abstract class NativeFactory {
             }
         } else if (environment.equals("virtual")) {
             instance = new com.group_finity.mascot.virtual.NativeFactoryImpl();
+        } else if (environment.equals("headless")) {
+            instance = new com.group_finity.mascot.headless.NativeFactoryImpl();
         }
     }
 
@@ -39,5 +41,17 @@ public abstract class NativeFactory {
 
     public abstract NativeImage newNativeImage(BufferedImage src);
 
+    /**
+     * Makes a horizontally flipped image which shares the pixels of one already made, for environments which
+     * can flip an image as they draw it.
+     *
+     * @param image an image made by {@link #newNativeImage(BufferedImage)}
+     * @return the image flipped horizontally, or {@code null} if this environment cannot draw images flipped,
+     * in which case a flipped copy of the source image has to be made instead
+     */
+    public NativeImage newMirroredNativeImage(final NativeImage image) {
+        return null;
+    }
+
     public abstract TranslucentWindow newTransparentWindow();
 }
@@ -0,0 +1,208 @@
+package com.group_finity.mascot;
+
+import java.awt.*;
+import java.util.List;
+import java.util.*;
+
+/**
+ * A uniform grid of {@link Mascot} anchors and bounds, used to find the {@link Mascot Mascots} near a point
+ * without looking at every one of them.
+ * <p>
+ * An index is built by {@link Manager} the first time it is queried after each tick, from the anchors and bounds
+ * each {@link Mascot} published at the end of that tick, and is never changed afterwards, so it can be queried
+ * from any thread. Ticks in which nothing asks where the {@link Mascot Mascots} are do not build one at all.
+ */
+class SpatialIndex {
+    /**
+     * The width and height of each cell, in pixels. This is about the size of a typical {@link Mascot},
+     * so that most are in no more than four cells.
+     */
+    private static final int CELL_SIZE = 128;
+
+    static final SpatialIndex EMPTY = new SpatialIndex(new Mascot[0]);
+
+    private static final class Entry {
+        private final Mascot mascot;
+        private final Point anchor;
+        private final Rectangle bounds;
+
+        private Entry(final Mascot mascot, final Point anchor, final Rectangle bounds) {
+            this.mascot = mascot;
+            this.anchor = anchor;
+            this.bounds = bounds;
+        }
+    }
+
+    /**
+     * The {@link Mascot Mascots} whose anchor is in each cell.
+     */
+    private final Map<Long, List<Entry>> anchors = new HashMap<>();
+
+    /**
+     * The {@link Mascot Mascots} whose bounds overlap each cell.
+     */
+    private final Map<Long, List<Entry>> bounds = new HashMap<>();
+
+    private int minCellX = Integer.MAX_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+
+    /**
+     * Builds an index of the published anchors and bounds of the given {@link Mascot Mascots}.
+     */
+    SpatialIndex(final Mascot[] mascots) {
+        for (final Mascot mascot : mascots) {
+            add(mascot, mascot.getPublishedAnchor(), mascot.getPublishedBounds());
+        }
+    }
+
+    /**
+     * Builds an index of the given {@link Mascot Mascots} as if they were at the given anchors and bounds.
+     */
+    SpatialIndex(final Mascot[] mascots, final Point[] anchors, final Rectangle[] bounds) {
+        for (int i = 0; i < mascots.length; i++) {
+            add(mascots[i], anchors[i], bounds[i]);
+        }
+    }
+
+    private void add(final Mascot mascot, final Point anchor, final Rectangle bounds) {
+        if (anchor == null) {
+            return;
+        }
+        final Entry entry = new Entry(mascot, new Point(anchor), new Rectangle(bounds));
+
+        final int anchorX = cellOf(anchor.x);
+        final int anchorY = cellOf(anchor.y);
+        anchors.computeIfAbsent(key(anchorX, anchorY), k -> new ArrayList<>()).add(entry);
+        minCellX = Math.min(minCellX, anchorX);
+        minCellY = Math.min(minCellY, anchorY);
+        maxCellX = Math.max(maxCellX, anchorX);
+        maxCellY = Math.max(maxCellY, anchorY);
+
+        if (entry.bounds.isEmpty()) {
+            return;
+        }
+        final int right = cellOf(entry.bounds.x + entry.bounds.width - 1);
+        final int bottom = cellOf(entry.bounds.y + entry.bounds.height - 1);
+        for (int y = cellOf(entry.bounds.y); y <= bottom; y++) {
+            for (int x = cellOf(entry.bounds.x); x <= right; x++) {
+                this.bounds.computeIfAbsent(key(x, y), k -> new ArrayList<>()).add(entry);
+            }
+        }
+    }
+
+    private static int cellOf(final int coordinate) {
+        return Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    private static long key(final int cellX, final int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return the number of {@link Mascot Mascots} whose anchor is exactly the given point
+     */
+    int countAt(final Point anchor) {
+        int count = 0;
+        for (final Entry entry : anchors.getOrDefault(key(cellOf(anchor.x), cellOf(anchor.y)), Collections.emptyList())) {
+            if (entry.anchor.equals(anchor)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the {@link Mascot Mascots} whose bounds contain the given point
+     */
+    List<Mascot> getMascotsAt(final Point point) {
+        final List<Mascot> result = new ArrayList<>();
+        for (final Entry entry : bounds.getOrDefault(key(cellOf(point.x), cellOf(point.y)), Collections.emptyList())) {
+            if (entry.bounds.contains(point)) {
+                result.add(entry.mascot);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the {@link Mascot Mascots} whose bounds overlap the given area, each listed once
+     */
+    List<Mascot> getMascotsIn(final Rectangle area) {
+        if (area.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        final Set<Mascot> result = new LinkedHashSet<>();
+        final int right = cellOf(area.x + area.width - 1);
+        final int bottom = cellOf(area.y + area.height - 1);
+        for (int y = cellOf(area.y); y <= bottom; y++) {
+            for (int x = cellOf(area.x); x <= right; x++) {
+                for (final Entry entry : bounds.getOrDefault(key(x, y), Collections.emptyList())) {
+                    if (entry.bounds.intersects(area)) {
+                        result.add(entry.mascot);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Finds the {@link Mascot} whose anchor is closest to the given point, by searching the cells
+     * in rings around it until no closer anchor can be in the rings still to come.
+     *
+     * @param point   the point to search from
+     * @param exclude a {@link Mascot} to leave out, usually the one searching, or {@code null}
+     * @return the closest {@link Mascot}, or {@code null} if there are no others
+     */
+    Mascot getNearest(final Point point, final Mascot exclude) {
+        if (anchors.isEmpty()) {
+            return null;
+        }
+
+        final int centerX = cellOf(point.x);
+        final int centerY = cellOf(point.y);
+        final int maxRing = Math.max(Math.max(centerX - minCellX, maxCellX - centerX), Math.max(centerY - minCellY, maxCellY - centerY));
+
+        Entry nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if ((long) (ring * 2 + 1) * (ring * 2 + 1) > anchors.size()) {
+                // The point is far from most anchors, so looking at every occupied cell is cheaper than more rings
+                for (final List<Entry> cell : anchors.values()) {
+                    for (final Entry entry : cell) {
+                        final double distance = entry.anchor.distanceSq(point);
+                        if (entry.mascot != exclude && distance < nearestDistance) {
+                            nearest = entry;
+                            nearestDistance = distance;
+                        }
+                    }
+                }
+                break;
+            }
+
+            for (int y = centerY - ring; y <= centerY + ring; y++) {
+                // Only the edge of each ring is new
+                final int step = y == centerY - ring || y == centerY + ring ? 1 : Math.max(ring * 2, 1);
+                for (int x = centerX - ring; x <= centerX + ring; x += step) {
+                    for (final Entry entry : anchors.getOrDefault(key(x, y), Collections.emptyList())) {
+                        final double distance = entry.anchor.distanceSq(point);
+                        if (entry.mascot != exclude && distance < nearestDistance) {
+                            nearest = entry;
+                            nearestDistance = distance;
+                        }
+                    }
+                }
+            }
+
+            // Anything in a further ring is at least this far from the point
+            final double reach = (double) ring * CELL_SIZE;
+            if (nearest != null && nearestDistance <= reach * reach) {
+                break;
+            }
+        }
+        return nearest == null ? null : nearest.mascot;
+    }
+}
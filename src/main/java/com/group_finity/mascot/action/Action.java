@@ -12,6 +12,11 @@ import com.group_finity.mascot.exception.VariableException;
 public interface Action {
 
     /**
+     * Prepares the action to be run from the start. An action may be initialised again after it has finished,
+     * or part of the way through, when its {@link com.group_finity.mascot.behavior.Behavior} is reused by
+     * {@link com.group_finity.mascot.behavior.BehaviorPool}, so this must reset everything an earlier run may have
+     * changed, leaving the action as it was when it was built.
+     *
      * @param mascot
      */
     void init(Mascot mascot) throws VariableException;
@@ -9,7 +9,9 @@ import com.group_finity.mascot.hotspot.Hotspot;
 import com.group_finity.mascot.script.Variable;
 import com.group_finity.mascot.script.VariableMap;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.logging.Logger;
 
@@ -44,10 +46,29 @@ public abstract class ActionBase implements Action {
 
     private ResourceBundle schema;
 
+    /**
+     * The slots of the parameters read every tick, looked up once when the action is built.
+     */
+    private final int durationSlot;
+
+    private final int conditionSlot;
+
+    private final int draggableSlot;
+
+    /**
+     * The variables replaced by {@link #putVariable(String, Object)} since the action was last initialised,
+     * as they were beforehand, so that {@link #init(Mascot)} can put them back.
+     */
+    private final Map<String, Variable> overwritten = new HashMap<>();
+
     public ActionBase(ResourceBundle schema, final List<Animation> animations, final VariableMap context) {
         this.schema = schema;
         this.animations = animations;
         variables = context;
+
+        durationSlot = getParameterSlot(PARAMETER_DURATION);
+        conditionSlot = getParameterSlot(PARAMETER_CONDITION);
+        draggableSlot = getParameterSlot(PARAMETER_DRAGGABLE);
     }
 
     @Override
@@ -64,6 +85,17 @@ public abstract class ActionBase implements Action {
         setMascot(mascot);
         setTime(0);
 
+        synchronized (getVariables()) {
+            for (final Map.Entry<String, Variable> variable : overwritten.entrySet()) {
+                if (variable.getValue() != null) {
+                    getVariables().put(variable.getKey(), variable.getValue());
+                } else {
+                    getVariables().remove(variable.getKey());
+                }
+            }
+            overwritten.clear();
+        }
+
         getVariables().put("mascot", mascot);
         getVariables().put("action", this);
 
@@ -76,11 +108,18 @@ public abstract class ActionBase implements Action {
 
     @Override
     public void next() throws LostGroundException, VariableException {
+        beginFrame();
+        tick();
+    }
+
+    /**
+     * Everything {@link #next()} does before {@link #tick()}.
+     */
+    void beginFrame() {
         initFrame();
         // clear affordances
         getMascot().getAffordances().clear();
         refreshHotspots();
-        tick();
     }
 
     private void initFrame() {
@@ -120,15 +159,15 @@ public abstract class ActionBase implements Action {
     }
 
     public Boolean isDraggable() throws VariableException {
-        return eval(schema.getString(PARAMETER_DRAGGABLE), Boolean.class, DEFAULT_DRAGGABLE);
+        return evalBoolean(draggableSlot, DEFAULT_DRAGGABLE);
     }
 
-    private Boolean isEffective() throws VariableException {
-        return eval(schema.getString(PARAMETER_CONDITION), Boolean.class, DEFAULT_CONDITION);
+    private boolean isEffective() throws VariableException {
+        return evalBoolean(conditionSlot, DEFAULT_CONDITION);
     }
 
     private int getDuration() throws VariableException {
-        return eval(schema.getString(PARAMETER_DURATION), Number.class, DEFAULT_DURATION).intValue();
+        return evalInt(durationSlot, DEFAULT_DURATION);
     }
 
     private void setMascot(final Mascot mascot) {
@@ -167,14 +206,33 @@ public abstract class ActionBase implements Action {
 
     protected void putVariable(final String key, final Object value) {
         synchronized (getVariables()) {
-            getVariables().put(key, value);
+            final Object previous = getVariables().put(key, value);
+            // The first value is the one to restore, and it may be null
+            if (!overwritten.containsKey(key)) {
+                overwritten.put(key, (Variable) previous);
+            }
         }
     }
 
     protected <T> T eval(final String name, final Class<T> type, final T defaultValue) throws VariableException {
+        return eval(getVariables().getSlot(name), type, defaultValue);
+    }
+
+    /**
+     * Looks up the slot of a parameter. Actions do this in their constructors for the parameters they read
+     * every tick, so that reading them does not involve any lookups by name.
+     *
+     * @param parameter the key of the parameter in the schema
+     * @return the slot to pass to {@link #eval(int, Class, Object)} and the like
+     */
+    protected int getParameterSlot(final String parameter) {
+        return getVariables().getSlot(schema.getString(parameter));
+    }
+
+    protected <T> T eval(final int slot, final Class<T> type, final T defaultValue) throws VariableException {
 
         synchronized (getVariables()) {
-            final Variable variable = getVariables().getRawMap().get(name);
+            final Variable variable = getVariables().getVariable(slot);
             if (variable != null) {
                 return type.cast(variable.get(getVariables()));
             }
@@ -183,6 +241,45 @@ public abstract class ActionBase implements Action {
         return defaultValue;
     }
 
+    /**
+     * The same as {@link #eval(int, Class, Object)} for a number, without boxing the default value.
+     */
+    protected int evalInt(final int slot, final int defaultValue) throws VariableException {
+
+        synchronized (getVariables()) {
+            final Variable variable = getVariables().getVariable(slot);
+            if (variable != null) {
+                return Number.class.cast(variable.get(getVariables())).intValue();
+            }
+        }
+
+        return defaultValue;
+    }
+
+    protected double evalDouble(final int slot, final double defaultValue) throws VariableException {
+
+        synchronized (getVariables()) {
+            final Variable variable = getVariables().getVariable(slot);
+            if (variable != null) {
+                return Number.class.cast(variable.get(getVariables())).doubleValue();
+            }
+        }
+
+        return defaultValue;
+    }
+
+    protected boolean evalBoolean(final int slot, final boolean defaultValue) throws VariableException {
+
+        synchronized (getVariables()) {
+            final Variable variable = getVariables().getVariable(slot);
+            if (variable != null) {
+                return Boolean.class.cast(variable.get(getVariables()));
+            }
+        }
+
+        return defaultValue;
+    }
+
     protected MascotEnvironment getEnvironment() {
         return getMascot().getEnvironment();
     }
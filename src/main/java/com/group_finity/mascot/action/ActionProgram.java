@@ -0,0 +1,226 @@
+package com.group_finity.mascot.action;
+
+import com.group_finity.mascot.Mascot;
+import com.group_finity.mascot.exception.LostGroundException;
+import com.group_finity.mascot.exception.VariableException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A tree of {@link Sequence} and {@link Select} actions laid out in arrays, and run by walking node numbers
+ * instead of each action calling into the ones inside it.
+ * <p>
+ * Nodes are numbered depth first, the top of the tree being node 0, and each {@link ComplexAction} refers to
+ * the nodes it runs through a table of children. Each check still recurses down from node 0 rather than jumping
+ * through a flat list of instructions, as it has to ask the nodes on the way down in the same order as
+ * {@link ComplexAction} would. The actions inside the tree are initialised, checked and ticked
+ * in exactly the same order and the same number of times as {@link ComplexAction} would, as some of them,
+ * such as {@link Dragged} and {@link ScanMove}, do more than answer the question when asked whether they have
+ * anything left to do. What is saved is the nesting, and evaluating the condition, duration and {@code Loop} of each
+ * {@link ComplexAction} again every time one of the actions below it is checked: those do not change until the action
+ * is initialised again, starts a new frame, or the mascot's time moves on, so each is only evaluated once in between.
+ * <p>
+ * Only trees made entirely of {@link Sequence} and {@link Select} are flattened, so that subclasses which
+ * change how they run are left to run themselves.
+ */
+final class ActionProgram {
+
+    private final Action[] nodes;
+
+    private final boolean[] sequence;
+
+    /**
+     * Where the children of each node start in {@link #children}, and how many it has. Nodes which are not
+     * {@link ComplexAction ComplexActions} have none.
+     */
+    private final int[] firstChild;
+
+    private final int[] childCount;
+
+    private final int[] children;
+
+    /**
+     * Whether each {@link ComplexAction}'s own condition and duration allowed it to continue when last evaluated,
+     * and the mascot's time when they were.
+     */
+    private final boolean[] ownKnown;
+
+    private final boolean[] own;
+
+    private final int[] ownTime;
+
+    private final boolean[] loopKnown;
+
+    private final boolean[] loop;
+
+    private ActionProgram(final List<Action> nodes, final List<int[]> children) {
+        final int count = nodes.size();
+        this.nodes = nodes.toArray(new Action[0]);
+        sequence = new boolean[count];
+        firstChild = new int[count];
+        childCount = new int[count];
+        ownKnown = new boolean[count];
+        own = new boolean[count];
+        ownTime = new int[count];
+        loopKnown = new boolean[count];
+        loop = new boolean[count];
+
+        int total = 0;
+        for (final int[] nodeChildren : children) {
+            total += nodeChildren.length;
+        }
+        this.children = new int[total];
+
+        int next = 0;
+        for (int node = 0; node < count; node++) {
+            final int[] nodeChildren = children.get(node);
+            sequence[node] = this.nodes[node] instanceof Sequence;
+            firstChild[node] = next;
+            childCount[node] = nodeChildren.length;
+            System.arraycopy(nodeChildren, 0, this.children, next, nodeChildren.length);
+            next += nodeChildren.length;
+        }
+    }
+
+    /**
+     * @param root the top of the tree
+     * @return the tree laid out flat, or {@code null} if it contains a {@link ComplexAction} which is neither
+     * a {@link Sequence} nor a {@link Select}
+     */
+    static ActionProgram compile(final ComplexAction root) {
+        final List<Action> nodes = new ArrayList<>();
+        final List<int[]> children = new ArrayList<>();
+        return add(root, nodes, children) >= 0 ? new ActionProgram(nodes, children) : null;
+    }
+
+    /**
+     * @return the number of the node added for the action, or -1 if it cannot be flattened
+     */
+    private static int add(final Action action, final List<Action> nodes, final List<int[]> children) {
+        final int node = nodes.size();
+        nodes.add(action);
+        children.add(new int[0]);
+
+        if (action instanceof ComplexAction) {
+            if (action.getClass() != Sequence.class && action.getClass() != Select.class) {
+                return -1;
+            }
+
+            final Action[] actions = ((ComplexAction) action).getActions();
+            final int[] nodeChildren = new int[actions.length];
+            for (int i = 0; i < actions.length; i++) {
+                nodeChildren[i] = add(actions[i], nodes, children);
+                if (nodeChildren[i] < 0) {
+                    return -1;
+                }
+            }
+            children.set(node, nodeChildren);
+        }
+        return node;
+    }
+
+    /**
+     * The same as {@link ComplexAction#init(Mascot)}, or {@link Action#init(Mascot)} for any other action.
+     */
+    void init(final int node, final Mascot mascot) throws VariableException {
+        if (!(nodes[node] instanceof ComplexAction)) {
+            nodes[node].init(mascot);
+            return;
+        }
+
+        final ComplexAction action = (ComplexAction) nodes[node];
+        action.initOwn(mascot);
+        ownKnown[node] = false;
+        loopKnown[node] = false;
+
+        action.setCurrentActionIndex(0);
+        if (hasNextOwn(node)) {
+            setCurrentAction(node, 0);
+            seek(node);
+        }
+    }
+
+    /**
+     * The same as {@link Sequence#hasNext()} or {@link ComplexAction#hasNext()}, or {@link Action#hasNext()}
+     * for any other action.
+     */
+    boolean hasNext(final int node) throws VariableException {
+        if (!(nodes[node] instanceof ComplexAction)) {
+            return nodes[node].hasNext();
+        }
+
+        if (sequence[node]) {
+            seek(node);
+        }
+
+        final int current = ((ComplexAction) nodes[node]).getCurrentAction();
+        final boolean inRange = current < childCount[node];
+
+        return hasNextOwn(node) && inRange && hasNext(children[firstChild[node] + current]);
+    }
+
+    /**
+     * The same as {@link ActionBase#next()} with {@link ComplexAction#tick()}, or {@link Action#next()}
+     * for any other action.
+     */
+    void next(final int node) throws LostGroundException, VariableException {
+        if (!(nodes[node] instanceof ComplexAction)) {
+            nodes[node].next();
+            return;
+        }
+
+        final ComplexAction action = (ComplexAction) nodes[node];
+        action.beginFrame();
+        ownKnown[node] = false;
+        loopKnown[node] = false;
+
+        final int child = children[firstChild[node] + Objects.checkIndex(action.getCurrentAction(), childCount[node])];
+        if (hasNext(child)) {
+            next(child);
+        }
+    }
+
+    private void seek(final int node) throws VariableException {
+        if (hasNextOwn(node)) {
+            final ComplexAction action = (ComplexAction) nodes[node];
+            while (action.getCurrentAction() < childCount[node]) {
+                if (hasNext(children[firstChild[node] + action.getCurrentAction()])) {
+                    break;
+                }
+                setCurrentAction(node, action.getCurrentAction() + 1);
+            }
+        }
+    }
+
+    private void setCurrentAction(final int node, final int currentAction) throws VariableException {
+        final ComplexAction action = (ComplexAction) nodes[node];
+        final int index = sequence[node] && isLoop(node) ? currentAction % childCount[node] : currentAction;
+        action.setCurrentActionIndex(index);
+        if (hasNextOwn(node)) {
+            if (index < childCount[node]) {
+                init(children[firstChild[node] + index], action.getMascot());
+            }
+        }
+    }
+
+    private boolean hasNextOwn(final int node) throws VariableException {
+        final ComplexAction action = (ComplexAction) nodes[node];
+        final int time = action.getMascot().getTime();
+        if (!ownKnown[node] || ownTime[node] != time) {
+            own[node] = action.hasNextOwn();
+            ownTime[node] = time;
+            ownKnown[node] = true;
+        }
+        return own[node];
+    }
+
+    private boolean isLoop(final int node) throws VariableException {
+        if (!loopKnown[node]) {
+            loop[node] = ((Sequence) nodes[node]).isLoop();
+            loopKnown[node] = true;
+        }
+        return loop[node];
+    }
+}
@@ -42,6 +42,7 @@ public abstract class BorderedAction extends ActionBase {
 
         final String borderType = getBorderType();
 
+        setBorder(null);
         if (getSchema().getString(BORDERTYPE_CEILING).equals(borderType)) {
             setBorder(getEnvironment().getCeiling());
         } else if (getSchema().getString(BORDERTYPE_WALL).equals(borderType)) {
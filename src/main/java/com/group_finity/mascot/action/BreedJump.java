@@ -1,6 +1,7 @@
 package com.group_finity.mascot.action;
 
 import com.group_finity.mascot.Main;
+import com.group_finity.mascot.Manager;
 import com.group_finity.mascot.Mascot;
 import com.group_finity.mascot.animation.Animation;
 import com.group_finity.mascot.exception.BehaviorInstantiationException;
@@ -74,31 +75,41 @@ public class BreedJump extends Jump {
     }
 
     private void breed() throws VariableException {
-        String childType = Main.getInstance().getConfiguration(getBornMascot()) != null ? getBornMascot() : getMascot().getImageSet();
-
-        final Mascot mascot = new Mascot(childType);
-
-        log.log(Level.INFO, "Breeding mascot ({0}, {1}, {2})", new Object[]{getMascot(), this, mascot});
-
-        if (getMascot().isLookRight()) {
-            mascot.setAnchor(new Point(getMascot().getAnchor().x - (int) Math.round(getBornX() * scaling),
-                    getMascot().getAnchor().y + (int) Math.round(getBornY() * scaling)));
+        final String childType = Main.getInstance().getConfiguration(getBornMascot()) != null ? getBornMascot() : getMascot().getImageSet();
+        final String bornBehaviour = getBornBehaviour();
+        final Mascot parent = getMascot();
+        final Manager manager = parent.getManager();
+
+        final Point anchor;
+        if (parent.isLookRight()) {
+            anchor = new Point(parent.getAnchor().x - (int) Math.round(getBornX() * scaling),
+                    parent.getAnchor().y + (int) Math.round(getBornY() * scaling));
         } else {
-            mascot.setAnchor(new Point(getMascot().getAnchor().x + (int) Math.round(getBornX() * scaling),
-                    getMascot().getAnchor().y + (int) Math.round(getBornY() * scaling)));
-        }
-        mascot.setLookRight(getMascot().isLookRight());
-
-        try {
-            mascot.setBehavior(Main.getInstance().getConfiguration(childType).buildBehavior(getBornBehaviour()));
-
-            getMascot().getManager().add(mascot);
-
-        } catch (final BehaviorInstantiationException | CantBeAliveException e) {
-            log.log(Level.SEVERE, "Failed to create mascot \"" + mascot + "\" with behavior \"" + getBornBehaviour() + "\"", e);
-            Main.showError(Main.getInstance().getLanguageBundle().getString("FailedCreateNewShimejiErrorMessage") + "\n" + e.getMessage() + "\n" + Main.getInstance().getLanguageBundle().getString("SeeLogForDetails"));
-            mascot.dispose();
+            anchor = new Point(parent.getAnchor().x + (int) Math.round(getBornX() * scaling),
+                    parent.getAnchor().y + (int) Math.round(getBornY() * scaling));
         }
+        final boolean lookRight = parent.isLookRight();
+
+        // Create the child once every mascot has been ticked, so that mascots are always created in the same order
+        manager.defer(() -> {
+            final Mascot mascot = new Mascot(childType);
+
+            log.log(Level.INFO, "Breeding mascot ({0}, {1}, {2})", new Object[]{parent, this, mascot});
+
+            mascot.setAnchor(anchor);
+            mascot.setLookRight(lookRight);
+            // Seed the child from its parent, so that a family turns out the same however the mascots were ticked
+            mascot.getRandom().setSeed(parent.getRandom().nextLong());
+
+            try {
+                mascot.setBehavior(Main.getInstance().getConfiguration(childType).buildBehavior(bornBehaviour));
+                manager.add(mascot);
+            } catch (final BehaviorInstantiationException | CantBeAliveException e) {
+                log.log(Level.SEVERE, "Failed to create mascot \"" + mascot + "\" with behavior \"" + bornBehaviour + "\"", e);
+                Main.showError(Main.getInstance().getLanguageBundle().getString("FailedCreateNewShimejiErrorMessage") + "\n" + e.getMessage() + "\n" + Main.getInstance().getLanguageBundle().getString("SeeLogForDetails"));
+                mascot.dispose();
+            }
+        });
     }
 
     private int getBornX() throws VariableException {
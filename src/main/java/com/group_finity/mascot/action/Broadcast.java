@@ -21,8 +21,11 @@ public class Broadcast extends Animate {
 
     private static final String DEFAULT_AFFORDANCE = "";
 
+    private final int affordanceSlot;
+
     public Broadcast(ResourceBundle schema, final List<Animation> animations, final VariableMap context) {
         super(schema, animations, context);
+        affordanceSlot = getParameterSlot(PARAMETER_AFFORDANCE);
     }
 
     @Override
@@ -33,6 +36,6 @@ public class Broadcast extends Animate {
     }
 
     private String getAffordance() throws VariableException {
-        return eval(getSchema().getString(PARAMETER_AFFORDANCE), String.class, DEFAULT_AFFORDANCE);
+        return eval(affordanceSlot, String.class, DEFAULT_AFFORDANCE);
     }
 }
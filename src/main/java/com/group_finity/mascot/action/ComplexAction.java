@@ -22,6 +22,15 @@ public abstract class ComplexAction extends ActionBase {
 
     private int currentAction;
 
+    /**
+     * This action and the ones inside it laid out flat, once it has been initialised.
+     * It stays {@code null} for actions run by the program of an action they are inside,
+     * and for trees which cannot be flattened.
+     */
+    private ActionProgram program;
+
+    private boolean compiled;
+
     public ComplexAction(ResourceBundle schema, final VariableMap context, final Action... actions) {
         super(schema, new ArrayList<>(), context);
         if (actions.length == 0) {
@@ -33,8 +42,18 @@ public abstract class ComplexAction extends ActionBase {
 
     @Override
     public void init(final Mascot mascot) throws VariableException {
+        if (!compiled) {
+            program = ActionProgram.compile(this);
+            compiled = true;
+        }
+        if (program != null) {
+            program.init(0, mascot);
+            return;
+        }
+
         super.init(mascot);
 
+        currentAction = 0;
         if (super.hasNext()) {
             setCurrentAction(0);
             seek();
@@ -52,13 +71,40 @@ public abstract class ComplexAction extends ActionBase {
         }
     }
 
+    /**
+     * The same as {@link ActionBase#init(Mascot)}, for {@link ActionProgram}.
+     */
+    void initOwn(final Mascot mascot) throws VariableException {
+        super.init(mascot);
+    }
+
     @Override
     public boolean hasNext() throws VariableException {
+        if (program != null) {
+            return program.hasNext(0);
+        }
+
         final boolean inRange = getCurrentAction() < getActions().length;
 
         return super.hasNext() && inRange && getAction().hasNext();
     }
 
+    /**
+     * Whether this action's own condition and duration allow it to continue, regardless of the action it is running.
+     */
+    boolean hasNextOwn() throws VariableException {
+        return super.hasNext();
+    }
+
+    @Override
+    public void next() throws LostGroundException, VariableException {
+        if (program != null) {
+            program.next(0);
+        } else {
+            super.next();
+        }
+    }
+
     @Override
     protected void tick() throws LostGroundException, VariableException {
         if (getAction().hasNext()) {
@@ -84,6 +130,35 @@ public abstract class ComplexAction extends ActionBase {
         }
     }
 
+    /**
+     * Makes this action and every {@link ComplexAction} inside it run by their own methods instead of by an
+     * {@link ActionProgram}, so that the two ways of running a tree can be compared. This must be called before
+     * the action is first initialised.
+     */
+    void runUnflattened() {
+        compiled = true;
+        program = null;
+        for (final Action action : actions) {
+            if (action instanceof ComplexAction) {
+                ((ComplexAction) action).runUnflattened();
+            }
+        }
+    }
+
+    /**
+     * @return whether this action is run by an {@link ActionProgram}, rather than by its own methods
+     */
+    boolean isFlattened() {
+        return program != null;
+    }
+
+    /**
+     * Moves on to an action without initialising it, for {@link ActionProgram}.
+     */
+    void setCurrentActionIndex(final int currentAction) {
+        this.currentAction = currentAction;
+    }
+
     protected int getCurrentAction() {
         return currentAction;
     }
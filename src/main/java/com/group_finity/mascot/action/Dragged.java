@@ -51,13 +51,14 @@ public class Dragged extends ActionBase {
         scaling = Double.parseDouble(Main.getInstance().getProperties().getProperty("Scaling", "1.0"));
 
         setFootX(getEnvironment().getCursor().getX() + (int) Math.round(getOffsetX() * scaling));
+        setFootDx(0);
         setTimeToRegist(250);
     }
 
     @Override
     public boolean hasNext() throws VariableException {
         final boolean inTime = getTime() < getTimeToRegist();
-        final boolean lukewarm = Math.random() >= 0.1;
+        final boolean lukewarm = getMascot().getRandom().nextDouble() >= 0.1;
 
         return super.hasNext() && (inTime || lukewarm);
     }
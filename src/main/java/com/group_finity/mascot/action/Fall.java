@@ -55,8 +55,17 @@ public class Fall extends ActionBase {
 
     protected double scaling;
 
+    private final int gravitySlot;
+
+    private final int resistanceXSlot;
+
+    private final int resistanceYSlot;
+
     public Fall(ResourceBundle schema, final List<Animation> animations, final VariableMap context) {
         super(schema, animations, context);
+        gravitySlot = getParameterSlot(PARAMETER_GRAVITY);
+        resistanceXSlot = getParameterSlot(PARAMETER_RESISTANCEX);
+        resistanceYSlot = getParameterSlot(PARAMETER_RESISTANCEY);
     }
 
     @Override
@@ -82,6 +91,8 @@ public class Fall extends ActionBase {
 
         setVelocityX(getInitialVx() * scaling);
         setVelocityY(getInitialVy() * scaling);
+        setModX(0);
+        setModY(0);
     }
 
     @Override
@@ -150,15 +161,15 @@ public class Fall extends ActionBase {
     }
 
     private double getGravity() throws VariableException {
-        return eval(getSchema().getString(PARAMETER_GRAVITY), Number.class, DEFAULT_GRAVITY).doubleValue();
+        return evalDouble(gravitySlot, DEFAULT_GRAVITY);
     }
 
     private double getResistanceX() throws VariableException {
-        return eval(getSchema().getString(PARAMETER_RESISTANCEX), Number.class, DEFAULT_RESISTANCEX).doubleValue();
+        return evalDouble(resistanceXSlot, DEFAULT_RESISTANCEX);
     }
 
     private double getResistanceY() throws VariableException {
-        return eval(getSchema().getString(PARAMETER_RESISTANCEY), Number.class, DEFAULT_RESISTANCEY).doubleValue();
+        return evalDouble(resistanceYSlot, DEFAULT_RESISTANCEY);
     }
 
     private void setVelocityY(final double velocityY) {
@@ -31,7 +31,7 @@ public class Interact extends Animate {
 
     @Override
     public boolean hasNext() throws VariableException {
-        return super.hasNext() && getMascot().getManager().hasOverlappingMascotsAtPoint(getMascot().getAnchor());
+        return super.hasNext() && getMascot().getManager().hasOverlappingMascotsAtPoint(getMascot().getPublishedAnchor());
     }
 
     @Override
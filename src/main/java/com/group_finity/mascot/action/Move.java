@@ -28,8 +28,14 @@ public class Move extends BorderedAction {
 
     private static final int DEFAULT_TARGETY = Integer.MAX_VALUE;
 
+    private final int targetXSlot;
+
+    private final int targetYSlot;
+
     public Move(ResourceBundle schema, final List<Animation> animations, final VariableMap context) {
         super(schema, animations, context);
+        targetXSlot = getParameterSlot(PARAMETER_TARGETX);
+        targetYSlot = getParameterSlot(PARAMETER_TARGETY);
     }
 
     @Override
@@ -98,10 +104,10 @@ public class Move extends BorderedAction {
     }
 
     private int getTargetX() throws VariableException {
-        return eval(getSchema().getString(PARAMETER_TARGETX), Number.class, DEFAULT_TARGETX).intValue();
+        return evalInt(targetXSlot, DEFAULT_TARGETX);
     }
 
     private int getTargetY() throws VariableException {
-        return eval(getSchema().getString(PARAMETER_TARGETY), Number.class, DEFAULT_TARGETY).intValue();
+        return evalInt(targetYSlot, DEFAULT_TARGETY);
     }
 }
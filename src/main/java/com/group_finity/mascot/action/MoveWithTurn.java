@@ -1,5 +1,6 @@
 package com.group_finity.mascot.action;
 
+import com.group_finity.mascot.Mascot;
 import com.group_finity.mascot.animation.Animation;
 import com.group_finity.mascot.exception.LostGroundException;
 import com.group_finity.mascot.exception.VariableException;
@@ -37,6 +38,13 @@ public class MoveWithTurn extends BorderedAction {
         }
     }
 
+    @Override
+    public void init(final Mascot mascot) throws VariableException {
+        super.init(mascot);
+
+        turning = false;
+    }
+
     @Override
     public boolean hasNext() throws VariableException {
 
@@ -40,7 +40,7 @@ public class Regist extends ActionBase {
         animation.next(getMascot(), getTime());
 
         if (getTime() + 1 >= getAnimation().getDuration()) {
-            getMascot().setLookRight(Math.random() < 0.5);
+            getMascot().setLookRight(getMascot().getRandom().nextBoolean());
 
             log.log(Level.INFO, "Lost ground ({0}, {1})", new Object[]{getMascot(), this});
             throw new LostGroundException();
@@ -53,6 +53,7 @@ public class ScanJump extends ActionBase {
         super.init(mascot);
 
         scaling = Double.parseDouble(Main.getInstance().getProperties().getProperty("Scaling", "1.0"));
+        target = null;
     }
 
     @Override
@@ -62,16 +63,20 @@ public class ScanJump extends ActionBase {
         }
 
         if (target == null) {
-            target = getMascot().getManager().getMascotWithAffordance(getAffordance());
+            target = getMascot().getManager().reserveMascotWithAffordance(getAffordance(), getMascot());
+        } else if (target.get() != null && !getMascot().getManager().renewReservation(getMascot(), target.get())) {
+            // Another mascot has taken the target, either because it came first in the list when both picked it, or because the reservation lapsed while this mascot was not being ticked
+            target = null;
+            return false;
         }
 
-        return super.hasNext() && target != null && target.get() != null && target.get().getAffordances().contains(getAffordance());
+        return super.hasNext() && target != null && target.get() != null && target.get().getPublishedAffordances().contains(getAffordance());
     }
 
     @Override
     protected void tick() throws VariableException {
-        int targetX = target.get().getAnchor().x;
-        int targetY = target.get().getAnchor().y;
+        int targetX = target.get().getPublishedAnchor().x;
+        int targetY = target.get().getPublishedAnchor().y;
 
         if (getMascot().getAnchor().x != targetX) {
             getMascot().setLookRight(getMascot().getAnchor().x < targetX);
@@ -96,17 +101,26 @@ public class ScanJump extends ActionBase {
         if (distance <= velocity) {
             getMascot().setAnchor(new Point(targetX, targetY));
 
-            boolean setFirstBehavior = false;
             try {
                 getMascot().setBehavior(Main.getInstance().getConfiguration(getMascot().getImageSet()).buildBehavior(getBehavior()));
-                setFirstBehavior = true;
-                Mascot targetMascot = target.get();
-                if (targetMascot != null) {
-                    targetMascot.setBehavior(Main.getInstance().getConfiguration(targetMascot.getImageSet()).buildBehavior(getTargetBehavior()));
-                }
             } catch (final BehaviorInstantiationException | CantBeAliveException e) {
-                log.log(Level.SEVERE, "Failed to set behavior to \"" + (setFirstBehavior ? getTargetBehavior() : getBehavior()) + "\" for mascot \"" + (setFirstBehavior ? target.get() : getMascot()) + "\"", e);
+                log.log(Level.SEVERE, "Failed to set behavior to \"" + getBehavior() + "\" for mascot \"" + getMascot() + "\"", e);
                 Main.showError(Main.getInstance().getLanguageBundle().getString("FailedSetBehaviourErrorMessage") + "\n" + e.getMessage() + "\n" + Main.getInstance().getLanguageBundle().getString("SeeLogForDetails"));
+                return;
+            }
+
+            final Mascot targetMascot = target.get();
+            if (targetMascot != null) {
+                final String targetBehavior = getTargetBehavior();
+                // The target may be ticked after this mascot or on another thread, so change its behavior once every mascot has been ticked
+                getMascot().getManager().defer(() -> {
+                    try {
+                        targetMascot.setBehavior(Main.getInstance().getConfiguration(targetMascot.getImageSet()).buildBehavior(targetBehavior));
+                    } catch (final BehaviorInstantiationException | CantBeAliveException e) {
+                        log.log(Level.SEVERE, "Failed to set behavior to \"" + targetBehavior + "\" for mascot \"" + targetMascot + "\"", e);
+                        Main.showError(Main.getInstance().getLanguageBundle().getString("FailedSetBehaviourErrorMessage") + "\n" + e.getMessage() + "\n" + Main.getInstance().getLanguageBundle().getString("SeeLogForDetails"));
+                    }
+                });
             }
         }
     }
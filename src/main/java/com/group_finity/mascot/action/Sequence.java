@@ -26,7 +26,9 @@ public class Sequence extends ComplexAction {
     @Override
     public boolean hasNext() throws VariableException {
 
-        seek();
+        if (!isFlattened()) {
+            seek();
+        }
 
         return super.hasNext();
     }
@@ -36,7 +38,7 @@ public class Sequence extends ComplexAction {
         super.setCurrentAction(isLoop() ? currentAction % getActions().length : currentAction);
     }
 
-    private Boolean isLoop() throws VariableException {
+    Boolean isLoop() throws VariableException {
         return eval(getSchema().getString(PARAMETER_LOOP), Boolean.class, DEFAULT_LOOP);
     }
 }
@@ -1,5 +1,6 @@
 package com.group_finity.mascot.action;
 
+import com.group_finity.mascot.Mascot;
 import com.group_finity.mascot.animation.Animation;
 import com.group_finity.mascot.exception.LostGroundException;
 import com.group_finity.mascot.exception.VariableException;
@@ -25,6 +26,13 @@ public class Turn extends BorderedAction {
         super(schema, animations, context);
     }
 
+    @Override
+    public void init(final Mascot mascot) throws VariableException {
+        super.init(mascot);
+
+        turning = false;
+    }
+
     @Override
     protected void tick() throws LostGroundException, VariableException {
         getMascot().setLookRight(isLookRight());
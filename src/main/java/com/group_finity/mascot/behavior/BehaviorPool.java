@@ -0,0 +1,98 @@
+package com.group_finity.mascot.behavior;
+
+import com.group_finity.mascot.ManagerStats;
+import com.group_finity.mascot.Mascot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Behaviors a {@link Mascot} has finished with, kept so that the next time the same behavior is chosen
+ * it can be initialised again instead of building a new one along with all of its actions, animations and variables.
+ * <p>
+ * Each {@link Mascot} has its own pool, as actions keep hold of the mascot they were last initialised for.
+ * Behaviors are told apart by what they were built from rather than by name, so a mascot which changes image set
+ * keeps the behaviors of its old one apart from those of its new one.
+ * A behavior is only reused once the mascot has started another tick, so that nothing still running from the tick
+ * it was replaced in, such as the behavior itself if it replaced itself from within {@link Behavior#next()},
+ * can be affected. Reusing a behavior relies on its actions resetting themselves in
+ * {@link com.group_finity.mascot.action.Action#init(Mascot)}.
+ */
+public class BehaviorPool {
+
+    /**
+     * The most behaviors of each kind kept for reuse. A mascot only runs one at a time,
+     * so any more than this would rarely be used.
+     */
+    private static final int IDLE_LIMIT = 2;
+
+    /**
+     * What each behavior built for the pool was built from, whether it is in use or waiting to be reused.
+     */
+    private final Map<Behavior, Object> keys = new IdentityHashMap<>();
+
+    private final Map<Object, Deque<Behavior>> idle = new HashMap<>();
+
+    /**
+     * Behaviors replaced since the start of the mascot's current tick, which may not be reused until its next one.
+     */
+    private final List<Behavior> retired = new ArrayList<>();
+
+    /**
+     * @param key what the behavior is built from
+     * @return a behavior built from the key which is no longer in use, or {@code null} if there is none,
+     * in which case the caller should build one and {@link #track(Object, Behavior) track} it
+     */
+    public synchronized Behavior acquire(final Object key) {
+        final Deque<Behavior> behaviors = idle.get(key);
+        final Behavior behavior = behaviors != null ? behaviors.poll() : null;
+        ManagerStats.getInstance().recordBehaviorPool(behavior != null);
+        return behavior;
+    }
+
+    /**
+     * Adds a newly built behavior to the pool, so that it is kept for reuse once it is replaced.
+     *
+     * @param key      what the behavior was built from
+     * @param behavior the behavior
+     */
+    public synchronized void track(final Object key, final Behavior behavior) {
+        keys.put(behavior, key);
+    }
+
+    /**
+     * Called when a behavior has been replaced. Behaviors which were not built for the pool are ignored.
+     *
+     * @param behavior the behavior which is no longer in use
+     */
+    public synchronized void retire(final Behavior behavior) {
+        if (keys.containsKey(behavior)) {
+            retired.add(behavior);
+        }
+    }
+
+    /**
+     * Makes the behaviors retired since the last call available for reuse.
+     * {@link Mascot} calls this at the start of each tick.
+     */
+    public synchronized void recycle() {
+        if (retired.isEmpty()) {
+            return;
+        }
+
+        for (final Behavior behavior : retired) {
+            final Deque<Behavior> behaviors = idle.computeIfAbsent(keys.get(behavior), k -> new ArrayDeque<>(IDLE_LIMIT));
+            if (behaviors.size() < IDLE_LIMIT) {
+                behaviors.add(behavior);
+            } else {
+                keys.remove(behavior);
+            }
+        }
+        retired.clear();
+    }
+}
@@ -212,10 +212,10 @@ public class UserBehavior implements Behavior {
                         log.log(Level.INFO, "Out of the screen bounds ({0}, {1})", new Object[]{getMascot(), this});
 
                         if (Boolean.parseBoolean(Main.getInstance().getProperties().getProperty("Multiscreen", "true"))) {
-                            getMascot().setAnchor(new Point((int) (Math.random() * (getEnvironment().getScreen().getRight() - getEnvironment().getScreen().getLeft())) + getEnvironment().getScreen().getLeft(),
+                            getMascot().setAnchor(new Point((int) (getMascot().getRandom().nextDouble() * (getEnvironment().getScreen().getRight() - getEnvironment().getScreen().getLeft())) + getEnvironment().getScreen().getLeft(),
                                     getEnvironment().getScreen().getTop() - 256));
                         } else {
-                            getMascot().setAnchor(new Point((int) (Math.random() * (getEnvironment().getWorkArea().getRight() - getEnvironment().getWorkArea().getLeft())) + getEnvironment().getWorkArea().getLeft(),
+                            getMascot().setAnchor(new Point((int) (getMascot().getRandom().nextDouble() * (getEnvironment().getWorkArea().getRight() - getEnvironment().getWorkArea().getLeft())) + getEnvironment().getWorkArea().getLeft(),
                                     getEnvironment().getWorkArea().getTop() - 256));
                         }
 
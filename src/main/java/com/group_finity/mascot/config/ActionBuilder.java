@@ -11,8 +11,12 @@ import com.group_finity.mascot.script.Variable;
 import com.group_finity.mascot.script.VariableMap;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -24,6 +28,12 @@ import java.util.logging.Logger;
 public class ActionBuilder implements IActionBuilder {
 
     private static final Logger log = Logger.getLogger(ActionBuilder.class.getName());
+
+    /**
+     * Every parameter parsed so far, by source.
+     */
+    private static final ConcurrentMap<String, Variable> PARSED = new ConcurrentHashMap<>();
+
     private final String type;
     private final String name;
     private final String className;
@@ -31,6 +41,8 @@ public class ActionBuilder implements IActionBuilder {
     private final List<AnimationBuilder> animationBuilders = new ArrayList<>();
     private final List<IActionBuilder> actionRefs = new ArrayList<>();
     private final ResourceBundle schema;
+    private volatile VariableMap variablesPrototype;
+    private volatile MethodHandle embeddedConstructor;
 
     public ActionBuilder(final Configuration configuration, final Entry actionNode, final String imageSet) throws IOException {
         schema = configuration.getSchema();
@@ -56,6 +68,23 @@ public class ActionBuilder implements IActionBuilder {
         log.log(Level.INFO, "Finished loading action: {0}", this);
     }
 
+    /**
+     * Waits for the images of this action and the actions inside it to finish loading.
+     *
+     * @throws IOException if any of them failed to load, for the first of them in the order they appear
+     * @see AnimationBuilder#awaitImages()
+     */
+    void awaitImages() throws IOException {
+        for (final AnimationBuilder animationBuilder : getAnimationBuilders()) {
+            animationBuilder.awaitImages();
+        }
+        for (final IActionBuilder actionRef : getActionRefs()) {
+            if (actionRef instanceof ActionBuilder) {
+                ((ActionBuilder) actionRef).awaitImages();
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return "Action(" + getName() + "," + getType() + "," + getClassName() + ")";
@@ -76,32 +105,10 @@ public class ActionBuilder implements IActionBuilder {
 
             if (type.equals(schema.getString("Embedded"))) {
                 try {
-                    @SuppressWarnings("unchecked") final Class<? extends Action> cls = (Class<? extends Action>) Class.forName(getClassName());
-                    try {
-                        try {
-                            return cls.getConstructor(ResourceBundle.class, List.class, VariableMap.class).newInstance(schema, animations, variables);
-                        } catch (IllegalAccessException | IllegalArgumentException | InstantiationException |
-                                 NoSuchMethodException | SecurityException | InvocationTargetException e) {
-                            // NOTE There's no constructor
-                        }
-
-                        return cls.getConstructor(ResourceBundle.class, VariableMap.class).newInstance(schema, variables);
-                    } catch (IllegalAccessException | IllegalArgumentException | InstantiationException |
-                             NoSuchMethodException | SecurityException | InvocationTargetException e) {
-                        // NOTE There's no constructor
-                    }
-
-                    return cls.getConstructor().newInstance();
-                } catch (final InstantiationException e) {
-                    throw new ActionInstantiationException(Main.getInstance().getLanguageBundle().getString("FailedClassActionInitialiseErrorMessage") + "(" + this + ")", e);
-                } catch (final IllegalAccessException e) {
-                    throw new ActionInstantiationException(Main.getInstance().getLanguageBundle().getString("CannotAccessClassActionErrorMessage") + "(" + this + ")", e);
-                } catch (final ClassNotFoundException e) {
-                    throw new ActionInstantiationException(Main.getInstance().getLanguageBundle().getString("ClassNotFoundErrorMessage") + "(" + this + ")", e);
-                } catch (NoSuchMethodException e) {
-                    // TODO Get translations for the following error message
-                    throw new ActionInstantiationException(Main.getInstance().getLanguageBundle().getString("ClassConstructorNotFoundErrorMessage") + "(" + this + ")", e);
-                } catch (InvocationTargetException e) {
+                    return (Action) getEmbeddedConstructor().invokeExact(schema, animations, variables);
+                } catch (final ActionInstantiationException e) {
+                    throw e;
+                } catch (final Throwable e) {
                     // TODO Think of a unique error message for this without wording it confusingly
                     throw new ActionInstantiationException(Main.getInstance().getLanguageBundle().getString("FailedClassActionInitialiseErrorMessage") + "(" + this + ")", e);
                 }
@@ -127,6 +134,47 @@ public class ActionBuilder implements IActionBuilder {
         }
     }
 
+    /**
+     * Finds the constructor of the embedded action class the first time it is needed. Each class may take
+     * the schema, animations and variables, just the schema and variables, or nothing, and is called
+     * through a handle which takes all three either way.
+     *
+     * @return a handle taking the schema, animations and variables and returning a new action
+     */
+    private MethodHandle getEmbeddedConstructor() throws ActionInstantiationException {
+        MethodHandle constructor = embeddedConstructor;
+        if (constructor != null) {
+            return constructor;
+        }
+
+        try {
+            final Class<?> cls = Class.forName(getClassName());
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            try {
+                constructor = lookup.findConstructor(cls, MethodType.methodType(void.class, ResourceBundle.class, List.class, VariableMap.class));
+            } catch (final NoSuchMethodException e) {
+                try {
+                    constructor = MethodHandles.dropArguments(
+                            lookup.findConstructor(cls, MethodType.methodType(void.class, ResourceBundle.class, VariableMap.class)), 1, List.class);
+                } catch (final NoSuchMethodException e2) {
+                    constructor = MethodHandles.dropArguments(
+                            lookup.findConstructor(cls, MethodType.methodType(void.class)), 0, ResourceBundle.class, List.class, VariableMap.class);
+                }
+            }
+            constructor = constructor.asType(MethodType.methodType(Action.class, ResourceBundle.class, List.class, VariableMap.class));
+        } catch (final IllegalAccessException e) {
+            throw new ActionInstantiationException(Main.getInstance().getLanguageBundle().getString("CannotAccessClassActionErrorMessage") + "(" + this + ")", e);
+        } catch (final ClassNotFoundException e) {
+            throw new ActionInstantiationException(Main.getInstance().getLanguageBundle().getString("ClassNotFoundErrorMessage") + "(" + this + ")", e);
+        } catch (final NoSuchMethodException e) {
+            // TODO Get translations for the following error message
+            throw new ActionInstantiationException(Main.getInstance().getLanguageBundle().getString("ClassConstructorNotFoundErrorMessage") + "(" + this + ")", e);
+        }
+
+        embeddedConstructor = constructor;
+        return constructor;
+    }
+
     @Override
     public void validate() throws ConfigurationException {
         for (final IActionBuilder ref : getActionRefs()) {
@@ -151,16 +199,41 @@ public class ActionBuilder implements IActionBuilder {
     }
 
     private VariableMap createVariables(final Map<String, String> params) throws VariableException {
-        final VariableMap variables = new VariableMap();
-        for (final Map.Entry<String, String> param : getParams().entrySet()) {
-            variables.put(param.getKey(), Variable.parse(param.getValue()));
+        // The action's own parameters are parsed the first time, and copied from then on
+        VariableMap prototype = variablesPrototype;
+        if (prototype == null) {
+            prototype = new VariableMap();
+            for (final Map.Entry<String, String> param : getParams().entrySet()) {
+                prototype.put(param.getKey(), parse(param.getValue()));
+            }
+            variablesPrototype = prototype;
         }
+
+        final VariableMap variables = prototype.copy();
         for (final Map.Entry<String, String> param : params.entrySet()) {
-            variables.put(param.getKey(), Variable.parse(param.getValue()));
+            variables.put(param.getKey(), parse(param.getValue()));
         }
         return variables;
     }
 
+    /**
+     * Parses a parameter, or copies it if the same source has been parsed before.
+     * Parameters passed down from behaviors and action references are different each time the action is built,
+     * but their sources are always the same few.
+     */
+    private static Variable parse(final String source) throws VariableException {
+        if (source == null) {
+            return null;
+        }
+
+        Variable prototype = PARSED.get(source);
+        if (prototype == null) {
+            prototype = Variable.parse(source);
+            PARSED.putIfAbsent(source, prototype);
+        }
+        return prototype.copy();
+    }
+
     public String getName() {
         return name;
     }
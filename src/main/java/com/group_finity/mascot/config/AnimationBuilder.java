@@ -22,6 +22,8 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,9 +36,17 @@ public class AnimationBuilder {
     private static final Logger log = Logger.getLogger(AnimationBuilder.class.getName());
     private final String condition;
     private String imageSet = "";
-    private final List<Pose> poses = new ArrayList<>();
-    private final List<Hotspot> hotspots = new ArrayList<>();
     private final ResourceBundle schema;
+    private final Pose[] poses;
+    private final Hotspot[] hotspots;
+    private volatile Variable conditionPrototype;
+
+    /**
+     * The images of each pose which are still being loaded, in the order the poses appear, along with how to
+     * describe them if they fail to load. Cleared by {@link #awaitImages()}.
+     */
+    private final List<CompletableFuture<Void>> pendingImages = new ArrayList<>();
+    private final List<String[]> pendingImageNames = new ArrayList<>();
 
     public AnimationBuilder(final ResourceBundle schema, final Entry animationNode, final String imageSet) throws IOException {
         if (!imageSet.isEmpty()) {
@@ -48,13 +58,17 @@ public class AnimationBuilder {
 
         log.log(Level.INFO, "Loading animations");
 
+        final List<Pose> poses = new ArrayList<>();
         for (final Entry frameNode : animationNode.selectChildren(schema.getString("Pose"))) {
             poses.add(loadPose(frameNode));
         }
+        this.poses = poses.toArray(new Pose[0]);
 
+        final List<Hotspot> hotspots = new ArrayList<>();
         for (final Entry frameNode : animationNode.selectChildren(schema.getString("Hotspot"))) {
             hotspots.add(loadHotspot(frameNode));
         }
+        this.hotspots = hotspots.toArray(new Hotspot[0]);
 
         log.log(Level.INFO, "Finished loading animations");
     }
@@ -83,14 +97,10 @@ public class AnimationBuilder {
                 final String[] anchorCoordinates = anchorText.split(",");
                 final Point anchor = new Point(Integer.parseInt(anchorCoordinates[0]), Integer.parseInt(anchorCoordinates[1]));
 
-                ImagePairLoader.load(imageText, imageRightText, anchor, scaling, filter);
-            } catch (IOException | NumberFormatException e) {
-                String error = imageText;
-                if (imageRightText != null) {
-                    error += ", " + imageRightText;
-                }
-                log.log(Level.SEVERE, "Failed to load image" + (imageRightText != null ? "s" : "") + ": " + error, e);
-                throw new IOException(Main.getInstance().getLanguageBundle().getString("FailedLoadImageErrorMessage") + " " + error, e);
+                pendingImages.add(ImagePairLoader.loadAsync(imageText, imageRightText, anchor, scaling, filter));
+                pendingImageNames.add(new String[]{imageText, imageRightText});
+            } catch (NumberFormatException e) {
+                throw failedToLoadImages(imageText, imageRightText, e);
             }
         }
 
@@ -128,6 +138,34 @@ public class AnimationBuilder {
         return pose;
     }
 
+    private static IOException failedToLoadImages(final String imageText, final String imageRightText, final Exception e) {
+        String error = imageText;
+        if (imageRightText != null) {
+            error += ", " + imageRightText;
+        }
+        log.log(Level.SEVERE, "Failed to load image" + (imageRightText != null ? "s" : "") + ": " + error, e);
+        return new IOException(Main.getInstance().getLanguageBundle().getString("FailedLoadImageErrorMessage") + " " + error, e);
+    }
+
+    /**
+     * Waits for the images of the poses to finish loading, which is done in the background so that the images of
+     * a whole configuration can be loaded at once.
+     *
+     * @throws IOException if any of them failed to load, for the first of them in the order the poses appear
+     */
+    void awaitImages() throws IOException {
+        for (int i = 0; i < pendingImages.size(); i++) {
+            try {
+                pendingImages.get(i).join();
+            } catch (final CompletionException e) {
+                final String[] names = pendingImageNames.get(i);
+                throw failedToLoadImages(names[0], names[1], ImagePairLoader.unwrap(e));
+            }
+        }
+        pendingImages.clear();
+        pendingImageNames.clear();
+    }
+
     private Hotspot loadHotspot(final Entry frameNode) throws IOException {
         final String shapeText = frameNode.getAttribute(schema.getString("Shape"));
         final String originText = frameNode.getAttribute(schema.getString("Origin"));
@@ -162,7 +200,13 @@ public class AnimationBuilder {
 
     public Animation buildAnimation() throws AnimationInstantiationException {
         try {
-            return new Animation(Variable.parse(condition), poses.toArray(new Pose[0]), hotspots.toArray(new Hotspot[0]));
+            // The condition is parsed the first time, and copied from then on
+            Variable prototype = conditionPrototype;
+            if (prototype == null) {
+                prototype = Variable.parse(condition);
+                conditionPrototype = prototype;
+            }
+            return new Animation(prototype.copy(), poses, hotspots);
         } catch (final VariableException e) {
             throw new AnimationInstantiationException(Main.getInstance().getLanguageBundle().getString("FailedConditionEvaluationErrorMessage"), e);
         }
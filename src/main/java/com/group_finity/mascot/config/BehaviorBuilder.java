@@ -2,6 +2,7 @@ package com.group_finity.mascot.config;
 
 import com.group_finity.mascot.Main;
 import com.group_finity.mascot.behavior.Behavior;
+import com.group_finity.mascot.behavior.BehaviorPool;
 import com.group_finity.mascot.behavior.UserBehavior;
 import com.group_finity.mascot.exception.ActionInstantiationException;
 import com.group_finity.mascot.exception.BehaviorInstantiationException;
@@ -115,6 +116,20 @@ public class BehaviorBuilder {
         }
     }
 
+    /**
+     * @param pool the pool of the mascot the behavior is for
+     * @return a behavior from the pool which was built by this builder, or a new one which has been added to it
+     */
+    public Behavior buildBehavior(final BehaviorPool pool) throws BehaviorInstantiationException {
+        final Behavior pooled = pool.acquire(this);
+        if (pooled != null) {
+            return pooled;
+        }
+
+        final Behavior behavior = buildBehavior();
+        pool.track(this, behavior);
+        return behavior;
+    }
 
     public boolean isEffective(final VariableMap context) throws VariableException {
         if (frequency == 0) {
@@ -152,7 +167,7 @@ public class BehaviorBuilder {
         return params;
     }
 
-    private List<String> getConditions() {
+    List<String> getConditions() {
         return conditions;
     }
 
@@ -0,0 +1,182 @@
+package com.group_finity.mascot.config;
+
+import com.group_finity.mascot.exception.VariableException;
+import com.group_finity.mascot.script.Variable;
+import com.group_finity.mascot.script.VariableMap;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The behaviors which may follow a given behavior, worked out once per {@link Configuration}
+ * so that choosing the next behavior does not have to gather them again every time.
+ * <p>
+ * Many behaviors share the same conditions, so each distinct condition is evaluated at most once per choice,
+ * and only when a behavior needs it. The behaviors whose conditions all hold are then picked from with an alias table,
+ * which takes constant time regardless of how many there are. A table is kept for each combination of
+ * effective behaviors, of which there are usually only a handful.
+ */
+class BehaviorCandidates {
+    private static final Logger log = Logger.getLogger(BehaviorCandidates.class.getName());
+
+    /**
+     * The most alias tables kept, in case the conditions of a configuration produce a great many combinations.
+     */
+    private static final int TABLE_LIMIT = 256;
+
+    private final BehaviorBuilder[] builders;
+
+    /**
+     * The distinct conditions of all the behaviors, parsed once. Each choice evaluates its own copy of them,
+     * so that values cached by one choice are never seen by another. Conditions which failed to parse are
+     * {@code null}, and never hold.
+     */
+    private final Variable[] conditions;
+
+    /**
+     * The indices of the conditions of each behavior, in the order they are checked.
+     */
+    private final int[][] requirements;
+
+    private final ConcurrentMap<BitSet, AliasTable> tables = new ConcurrentHashMap<>();
+
+    BehaviorCandidates(final Collection<BehaviorBuilder> builders) {
+        this.builders = builders.toArray(new BehaviorBuilder[0]);
+
+        final Map<String, Integer> indices = new LinkedHashMap<>();
+        requirements = new int[this.builders.length][];
+        for (int i = 0; i < this.builders.length; i++) {
+            final List<Integer> required = new ArrayList<>();
+            for (final String condition : this.builders[i].getConditions()) {
+                if (condition != null) {
+                    required.add(indices.computeIfAbsent(condition, k -> indices.size()));
+                }
+            }
+            requirements[i] = required.stream().mapToInt(Integer::intValue).toArray();
+        }
+        conditions = new Variable[indices.size()];
+        for (final Map.Entry<String, Integer> condition : indices.entrySet()) {
+            try {
+                conditions[condition.getValue()] = Variable.parse(condition.getKey());
+            } catch (final VariableException e) {
+                log.log(Level.WARNING, "Failed to parse the condition of a behavior: " + condition.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Picks one of the behaviors whose conditions hold, with a probability proportional to its frequency.
+     *
+     * @param context the variables to evaluate the conditions with
+     * @param random  a random number from 0 up to but not including 1
+     * @return the chosen behavior, or {@code null} if none of them are effective
+     */
+    BehaviorBuilder choose(final VariableMap context, final double random) {
+        final Boolean[] outcomes = new Boolean[conditions.length];
+        final BitSet effective = new BitSet(builders.length);
+        for (int i = 0; i < builders.length; i++) {
+            if (builders[i].getFrequency() != 0 && isEffective(i, context, outcomes)) {
+                effective.set(i);
+            }
+        }
+        if (effective.isEmpty()) {
+            return null;
+        }
+
+        AliasTable table = tables.get(effective);
+        if (table == null) {
+            table = new AliasTable(builders, effective);
+            if (tables.size() < TABLE_LIMIT) {
+                tables.putIfAbsent(effective, table);
+            }
+        }
+        return builders[table.sample(random)];
+    }
+
+    private boolean isEffective(final int builder, final VariableMap context, final Boolean[] outcomes) {
+        for (final int condition : requirements[builder]) {
+            if (outcomes[condition] == null) {
+                try {
+                    outcomes[condition] = conditions[condition] != null && (Boolean) conditions[condition].copy().get(context);
+                } catch (final VariableException e) {
+                    log.log(Level.WARNING, "Failed to calculate the frequency of the behavior", e);
+                    outcomes[condition] = false;
+                }
+            }
+            if (!outcomes[condition]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Vose's alias method: each column holds a behavior and, for the rest of the column's share,
+     * an alias of another behavior, so that picking takes one random number whatever the number of behaviors.
+     */
+    private static final class AliasTable {
+        private final int[] indices;
+        private final double[] probabilities;
+        private final int[] aliases;
+
+        private AliasTable(final BehaviorBuilder[] builders, final BitSet effective) {
+            final int count = effective.cardinality();
+            indices = new int[count];
+            probabilities = new double[count];
+            aliases = new int[count];
+
+            long total = 0;
+            for (int i = effective.nextSetBit(0), column = 0; i >= 0; i = effective.nextSetBit(i + 1), column++) {
+                indices[column] = i;
+                total += builders[i].getFrequency();
+            }
+
+            final double[] scaled = new double[count];
+            final int[] small = new int[count];
+            final int[] large = new int[count];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int column = 0; column < count; column++) {
+                scaled[column] = (double) builders[indices[column]].getFrequency() * count / total;
+                if (scaled[column] < 1) {
+                    small[smallCount++] = column;
+                } else {
+                    large[largeCount++] = column;
+                }
+            }
+
+            while (smallCount > 0 && largeCount > 0) {
+                final int less = small[--smallCount];
+                final int more = large[--largeCount];
+                probabilities[less] = scaled[less];
+                aliases[less] = more;
+                scaled[more] = scaled[more] + scaled[less] - 1;
+                if (scaled[more] < 1) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+            // Whatever is left is only short of a full column through rounding
+            while (largeCount > 0) {
+                probabilities[large[--largeCount]] = 1;
+            }
+            while (smallCount > 0) {
+                probabilities[small[--smallCount]] = 1;
+            }
+        }
+
+        /**
+         * @param random a random number from 0 up to but not including 1
+         * @return the index of the chosen behavior
+         */
+        private int sample(final double random) {
+            final double scaled = random * indices.length;
+            final int column = Math.min((int) scaled, indices.length - 1);
+            return scaled - column < probabilities[column] ? indices[column] : indices[aliases[column]];
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.group_finity.mascot.config;
 
 import com.group_finity.mascot.Main;
+import com.group_finity.mascot.ManagerStats;
 import com.group_finity.mascot.Mascot;
 import com.group_finity.mascot.action.Action;
 import com.group_finity.mascot.behavior.Behavior;
@@ -9,6 +10,7 @@ import com.group_finity.mascot.exception.ActionInstantiationException;
 import com.group_finity.mascot.exception.BehaviorInstantiationException;
 import com.group_finity.mascot.exception.ConfigurationException;
 import com.group_finity.mascot.exception.VariableException;
+import com.group_finity.mascot.script.Variable;
 import com.group_finity.mascot.script.VariableMap;
 import com.joconner.i18n.Utf8ResourceBundleControl;
 
@@ -18,6 +20,7 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -31,6 +34,8 @@ public class Configuration {
     private final Map<String, String> constants = new LinkedHashMap<>(2);
     private final Map<String, ActionBuilder> actionBuilders = new LinkedHashMap<>();
     private final Map<String, BehaviorBuilder> behaviorBuilders = new LinkedHashMap<>();
+    private final Map<String, BehaviorCandidates> candidates = new ConcurrentHashMap<>();
+    private volatile BehaviorCandidates initialCandidates;
     private ResourceBundle schema;
 
     public void load(final Entry configurationNode, final String imageSet) throws IOException, ConfigurationException {
@@ -60,6 +65,9 @@ public class Configuration {
                     constant.getAttribute(schema.getString("Value")));
         }
 
+        // Start the script engine in the background while the images are loaded, if any script will need it
+        prepareScripts(configurationNode);
+
         log.log(Level.INFO, "Reading action lists");
         for (final Entry list : configurationNode.selectChildren(schema.getString("ActionList"))) {
             log.log(Level.INFO, "Reading an action list...");
@@ -78,6 +86,11 @@ public class Configuration {
         }
         log.log(Level.INFO, "Finished reading all action lists");
 
+        // The images are loaded in the background while the actions are read, so errors are only known now
+        for (final ActionBuilder action : getActionBuilders().values()) {
+            action.awaitImages();
+        }
+
         log.log(Level.INFO, "Reading behavior lists");
         for (final Entry list : configurationNode.selectChildren(schema.getString("BehaviourList"))) {
             log.log(Level.INFO, "Reading a behavior list...");
@@ -91,6 +104,15 @@ public class Configuration {
         log.log(Level.INFO, "Configuration loaded successfully");
     }
 
+    private static void prepareScripts(final Entry node) {
+        for (final String value : node.getAttributes().values()) {
+            Variable.prepare(value);
+        }
+        for (final Entry child : node.getChildren()) {
+            prepareScripts(child);
+        }
+    }
+
     private void loadBehaviors(final Entry list, final List<String> conditions) {
         for (final Entry node : list.getChildren()) {
             if (node.getName().equals(schema.getString("Condition"))) {
@@ -124,62 +146,64 @@ public class Configuration {
     }
 
     public Behavior buildBehavior(final String previousName, final Mascot mascot) throws BehaviorInstantiationException {
-        final VariableMap context = new VariableMap();
-        context.putAll(getConstants()); // put first so they can't override mascot
-        context.put("mascot", mascot);
-
-        final Collection<BehaviorBuilder> candidates = new ArrayList<>();
-        long totalFrequency = 0;
-        for (final BehaviorBuilder behaviorFactory : getBehaviorBuilders().values()) {
-            try {
-                if (behaviorFactory.isEffective(context)) {
-                    candidates.add(behaviorFactory);
-                    totalFrequency += behaviorFactory.getFrequency();
-                }
-            } catch (final VariableException e) {
-                log.log(Level.WARNING, "Failed to calculate the frequency of the behavior", e);
-            }
+        final long begin = ManagerStats.getInstance().begin();
+        try {
+            return chooseBehavior(previousName, mascot);
+        } finally {
+            ManagerStats.getInstance().end(ManagerStats.Phase.BUILD_BEHAVIOR, begin);
         }
+    }
 
-        if (previousName != null) {
-            final BehaviorBuilder previousBehaviorFactory = getBehaviorBuilders().get(previousName);
-            if (!previousBehaviorFactory.isNextAdditive()) {
-                totalFrequency = 0;
-                candidates.clear();
-            }
-            for (final BehaviorBuilder behaviorFactory : previousBehaviorFactory.getNextBehaviorBuilders()) {
-                try {
-                    if (behaviorFactory.isEffective(context)) {
-                        candidates.add(behaviorFactory);
-                        totalFrequency += behaviorFactory.getFrequency();
-                    }
-                } catch (final VariableException e) {
-                    log.log(Level.WARNING, "Failed to calculate the frequency of the behavior", e);
-                }
-            }
-        }
+    private Behavior chooseBehavior(final String previousName, final Mascot mascot) throws BehaviorInstantiationException {
+        final BehaviorBuilder chosen = getCandidates(previousName).choose(createContext(mascot), mascot.getRandom().nextDouble());
 
-        if (totalFrequency == 0) {
+        if (chosen == null) {
             if (Boolean.parseBoolean(Main.getInstance().getProperties().getProperty("Multiscreen", "true"))) {
-                mascot.setAnchor(new Point((int) (Math.random() * (mascot.getEnvironment().getScreen().getRight() - mascot.getEnvironment().getScreen().getLeft())) + mascot.getEnvironment().getScreen().getLeft(),
+                mascot.setAnchor(new Point((int) (mascot.getRandom().nextDouble() * (mascot.getEnvironment().getScreen().getRight() - mascot.getEnvironment().getScreen().getLeft())) + mascot.getEnvironment().getScreen().getLeft(),
                         mascot.getEnvironment().getScreen().getTop() - 256));
             } else {
-                mascot.setAnchor(new Point((int) (Math.random() * (mascot.getEnvironment().getWorkArea().getRight() - mascot.getEnvironment().getWorkArea().getLeft())) + mascot.getEnvironment().getWorkArea().getLeft(),
+                mascot.setAnchor(new Point((int) (mascot.getRandom().nextDouble() * (mascot.getEnvironment().getWorkArea().getRight() - mascot.getEnvironment().getWorkArea().getLeft())) + mascot.getEnvironment().getWorkArea().getLeft(),
                         mascot.getEnvironment().getWorkArea().getTop() - 256));
             }
             return buildBehavior(schema.getString(UserBehavior.BEHAVIOURNAME_FALL));
         }
 
-        double random = Math.random() * totalFrequency;
+        return chosen.buildBehavior(mascot.getBehaviorPool());
+    }
+
+    /**
+     * @return the variables the conditions of behaviors are evaluated with for the given mascot
+     */
+    VariableMap createContext(final Mascot mascot) {
+        final VariableMap context = new VariableMap();
+        context.putAll(getConstants()); // put first so they can't override mascot
+        context.put("mascot", mascot);
+        return context;
+    }
 
-        for (final BehaviorBuilder behaviorFactory : candidates) {
-            random -= behaviorFactory.getFrequency();
-            if (random < 0) {
-                return behaviorFactory.buildBehavior();
+    /**
+     * @param previousName the name of the behavior which has ended, or {@code null} if there was none
+     * @return the behaviors which may follow it
+     */
+    BehaviorCandidates getCandidates(final String previousName) {
+        if (previousName == null) {
+            BehaviorCandidates candidates = initialCandidates;
+            if (candidates == null) {
+                candidates = new BehaviorCandidates(getBehaviorBuilders().values());
+                initialCandidates = candidates;
             }
+            return candidates;
         }
 
-        return null;
+        return candidates.computeIfAbsent(previousName, name -> {
+            final BehaviorBuilder previous = getBehaviorBuilders().get(name);
+            final List<BehaviorBuilder> builders = new ArrayList<>();
+            if (previous.isNextAdditive()) {
+                builders.addAll(getBehaviorBuilders().values());
+            }
+            builders.addAll(previous.getNextBehaviorBuilders());
+            return new BehaviorCandidates(builders);
+        });
     }
 
     public Behavior buildBehavior(final String name) throws BehaviorInstantiationException {
@@ -198,7 +222,7 @@ public class Configuration {
         return actionBuilders;
     }
 
-    private Map<String, BehaviorBuilder> getBehaviorBuilders() {
+    Map<String, BehaviorBuilder> getBehaviorBuilders() {
         return behaviorBuilders;
     }
 
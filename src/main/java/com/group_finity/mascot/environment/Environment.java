@@ -25,7 +25,8 @@ public abstract class Environment {
 
     public abstract void dispose();
 
-    protected static Rectangle screenRect = new Rectangle(new Point(0, 0), Toolkit.getDefaultToolkit().getScreenSize());
+    // The toolkit cannot report a screen size when there is no display, so start with an empty rectangle instead
+    protected static Rectangle screenRect = GraphicsEnvironment.isHeadless() ? new Rectangle() : new Rectangle(new Point(0, 0), Toolkit.getDefaultToolkit().getScreenSize());
 
     protected static Map<String, Rectangle> screenRects = new HashMap<>();
 
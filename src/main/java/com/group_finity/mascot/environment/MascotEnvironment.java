@@ -153,11 +153,20 @@ public class MascotEnvironment {
     }
 
     public void moveActiveIE(Point point) {
-        impl.moveActiveIE(point);
+        // The active IE is shared by every mascot, so it is only moved once they have all been ticked
+        if (mascot.getManager() != null) {
+            mascot.getManager().defer(() -> impl.moveActiveIE(point));
+        } else {
+            impl.moveActiveIE(point);
+        }
     }
 
     public void restoreIE() {
-        impl.restoreIE();
+        if (mascot.getManager() != null) {
+            mascot.getManager().defer(impl::restoreIE);
+        } else {
+            impl.restoreIE();
+        }
     }
 
     public void refreshWorkArea() {
@@ -1,5 +1,6 @@
 package com.group_finity.mascot.generic;
 
+import com.group_finity.mascot.image.MirroredImages;
 import com.group_finity.mascot.image.NativeImage;
 
 import javax.swing.*;
@@ -25,11 +26,21 @@ class GenericNativeImage implements NativeImage {
      */
     private final BufferedImage managedImage;
 
+    /**
+     * Whether the image is drawn flipped horizontally.
+     */
+    private final boolean mirrored;
+
     private final Icon icon;
 
     public GenericNativeImage(final BufferedImage image) {
+        this(image, false);
+    }
+
+    private GenericNativeImage(final BufferedImage image, final boolean mirrored) {
         managedImage = image;
-        icon = new ImageIcon(image);
+        this.mirrored = mirrored;
+        icon = MirroredImages.createIcon(image, mirrored);
     }
 
     public void flush() {
@@ -68,6 +79,20 @@ class GenericNativeImage implements NativeImage {
         return managedImage;
     }
 
+    /**
+     * @return the same image flipped horizontally, sharing its pixels
+     */
+    GenericNativeImage mirror() {
+        return new GenericNativeImage(managedImage, !mirrored);
+    }
+
+    /**
+     * Draws the image with its top left corner at the given point, flipped if it is mirrored.
+     */
+    void paint(final Graphics g, final int x, final int y) {
+        MirroredImages.paint(g, managedImage, mirrored, x, y);
+    }
+
     public Icon getIcon() {
         return icon;
     }
@@ -33,7 +33,7 @@ class GenericTranslucentWindow extends JWindow implements TranslucentWindow {
 
             @Override
             protected void paintComponent(final Graphics g) {
-                g.drawImage(getImage().getManagedImage(), 0, 0, null);
+                getImage().paint(g, 0, 0);
             }
         };
         setContentPane(panel);
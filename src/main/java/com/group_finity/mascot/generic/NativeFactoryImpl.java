@@ -25,6 +25,11 @@ public class NativeFactoryImpl extends NativeFactory {
         return new GenericNativeImage(src);
     }
 
+    @Override
+    public NativeImage newMirroredNativeImage(final NativeImage image) {
+        return ((GenericNativeImage) image).mirror();
+    }
+
     @Override
     public TranslucentWindow newTransparentWindow() {
         return new GenericTranslucentWindow();
@@ -0,0 +1,249 @@
+package com.group_finity.mascot.headless;
+
+import com.group_finity.mascot.Main;
+import com.group_finity.mascot.environment.Area;
+import com.group_finity.mascot.environment.Environment;
+
+import java.awt.*;
+import java.util.List;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Synthetic desktop for the headless environment.
+ * <p>
+ * The screens, the work area, the windows which can become the active IE and the path of the cursor
+ * are read from the settings when the environment is first initialized, and can be changed afterwards
+ * through the setters. Rectangles are written as {@code x,y,width,height} and points as {@code x,y};
+ * lists are separated by slashes, as with the other list settings:
+ * <ul>
+ *     <li>{@code HeadlessScreens}: the screens (default {@code 0,0,1920,1080})</li>
+ *     <li>{@code HeadlessWorkArea}: the work area (default: the bounds of all screens)</li>
+ *     <li>{@code HeadlessWindows}: windows which can become the active IE (default: none)</li>
+ *     <li>{@code HeadlessActiveWindow}: the index of the active window, or -1 for none (default 0)</li>
+ *     <li>{@code HeadlessCursor}: cursor positions, one per tick, repeated forever (default: the centre of the work area)</li>
+ * </ul>
+ */
+public class HeadlessEnvironment extends Environment {
+    private static final Logger log = Logger.getLogger(HeadlessEnvironment.class.getName());
+
+    private static final Rectangle NO_ACTIVE_IE = new Rectangle(-500, -500, 0, 0);
+
+    private final Map<String, Rectangle> screenBounds = new LinkedHashMap<>();
+
+    private final Rectangle virtualScreenBounds = new Rectangle();
+
+    private final Rectangle workAreaRect = new Rectangle();
+
+    private final Area workArea = new Area();
+
+    private final List<String> windowTitles = new ArrayList<>();
+
+    private final List<Rectangle> windows = new ArrayList<>();
+
+    private final List<Rectangle> originalWindows = new ArrayList<>();
+
+    private int activeWindow = -1;
+
+    private final Area activeIE = new Area();
+
+    private final List<Point> cursorScript = new ArrayList<>();
+
+    private int cursorIndex = 0;
+
+    private boolean initialized = false;
+
+    @Override
+    public synchronized void init() {
+        // MascotEnvironment calls this once per mascot, so only read the settings the first time
+        if (!initialized) {
+            initialized = true;
+            loadSettings(Main.getInstance().getProperties());
+        }
+
+        tick();
+    }
+
+    private void loadSettings(final Properties properties) {
+        try {
+            final List<Rectangle> screens = new ArrayList<>();
+            for (String screen : properties.getProperty("HeadlessScreens", "0,0,1920,1080").split("/")) {
+                if (!screen.trim().isEmpty()) {
+                    screens.add(parseRectangle(screen));
+                }
+            }
+            setScreens(screens.toArray(new Rectangle[0]));
+
+            final String workAreaText = properties.getProperty("HeadlessWorkArea", "");
+            if (!workAreaText.trim().isEmpty()) {
+                setWorkArea(parseRectangle(workAreaText));
+            }
+
+            clearWindows();
+            for (String window : properties.getProperty("HeadlessWindows", "").split("/")) {
+                if (!window.trim().isEmpty()) {
+                    addWindow("Window " + (windows.size() + 1), parseRectangle(window));
+                }
+            }
+            setActiveWindow(windows.isEmpty() ? -1 : Integer.parseInt(properties.getProperty("HeadlessActiveWindow", "0").trim()));
+
+            final List<Point> cursor = new ArrayList<>();
+            for (String point : properties.getProperty("HeadlessCursor", "").split("/")) {
+                if (!point.trim().isEmpty()) {
+                    cursor.add(parsePoint(point));
+                }
+            }
+            setCursorScript(cursor);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            log.log(Level.SEVERE, "Failed to read the headless environment settings, using the defaults", e);
+            setScreens(new Rectangle(0, 0, 1920, 1080));
+            clearWindows();
+            setCursorScript(Collections.emptyList());
+        }
+    }
+
+    private static Rectangle parseRectangle(final String text) {
+        final String[] values = text.split(",");
+        if (values.length != 4) {
+            throw new IllegalArgumentException("Expected x,y,width,height but got \"" + text + "\"");
+        }
+        return new Rectangle(Integer.parseInt(values[0].trim()), Integer.parseInt(values[1].trim()),
+                Integer.parseInt(values[2].trim()), Integer.parseInt(values[3].trim()));
+    }
+
+    private static Point parsePoint(final String text) {
+        final String[] values = text.split(",");
+        if (values.length != 2) {
+            throw new IllegalArgumentException("Expected x,y but got \"" + text + "\"");
+        }
+        return new Point(Integer.parseInt(values[0].trim()), Integer.parseInt(values[1].trim()));
+    }
+
+    @Override
+    public synchronized void tick() {
+        getScreen().set(virtualScreenBounds);
+        getComplexScreen().set(screenBounds);
+        workArea.set(workAreaRect);
+
+        if (activeWindow >= 0) {
+            activeIE.set(windows.get(activeWindow));
+            activeIE.setVisible(true);
+        } else {
+            activeIE.set(NO_ACTIVE_IE);
+            activeIE.setVisible(false);
+        }
+
+        if (cursorScript.isEmpty()) {
+            getCursor().set(new Point((int) workAreaRect.getCenterX(), (int) workAreaRect.getCenterY()));
+        } else {
+            getCursor().set(cursorScript.get(cursorIndex));
+            cursorIndex = (cursorIndex + 1) % cursorScript.size();
+        }
+    }
+
+    /**
+     * Replaces the screens. The work area is reset to the bounds of all screens.
+     *
+     * @param screens the bounds of each screen
+     */
+    public synchronized void setScreens(final Rectangle... screens) {
+        screenBounds.clear();
+        Rectangle virtualBounds = null;
+        for (int i = 0; i < screens.length; i++) {
+            screenBounds.put("screen" + i, new Rectangle(screens[i]));
+            virtualBounds = virtualBounds == null ? new Rectangle(screens[i]) : virtualBounds.union(screens[i]);
+        }
+        virtualScreenBounds.setBounds(virtualBounds == null ? new Rectangle() : virtualBounds);
+        workAreaRect.setBounds(virtualScreenBounds);
+    }
+
+    public synchronized void setWorkArea(final Rectangle workArea) {
+        workAreaRect.setBounds(workArea);
+    }
+
+    /**
+     * Adds a window which can become the active IE.
+     *
+     * @param title  the title of the window
+     * @param bounds the bounds of the window
+     * @return the index of the new window
+     */
+    public synchronized int addWindow(final String title, final Rectangle bounds) {
+        windowTitles.add(title);
+        windows.add(new Rectangle(bounds));
+        originalWindows.add(new Rectangle(bounds));
+        return windows.size() - 1;
+    }
+
+    public synchronized void clearWindows() {
+        windowTitles.clear();
+        windows.clear();
+        originalWindows.clear();
+        activeWindow = -1;
+    }
+
+    /**
+     * Sets which window is the active IE.
+     *
+     * @param index the index of the window, or -1 if there should be no active IE
+     */
+    public synchronized void setActiveWindow(final int index) {
+        if (index < -1 || index >= windows.size()) {
+            throw new IndexOutOfBoundsException("No window with index " + index);
+        }
+        activeWindow = index;
+    }
+
+    /**
+     * Sets the positions the cursor goes through, one per tick. When the end is reached,
+     * the cursor starts again from the first position. If empty, the cursor stays in the
+     * centre of the work area.
+     *
+     * @param points the positions of the cursor
+     */
+    public synchronized void setCursorScript(final List<Point> points) {
+        cursorScript.clear();
+        for (Point point : points) {
+            cursorScript.add(new Point(point));
+        }
+        cursorIndex = 0;
+    }
+
+    @Override
+    public Area getWorkArea() {
+        return workArea;
+    }
+
+    @Override
+    public Area getActiveIE() {
+        return activeIE;
+    }
+
+    @Override
+    public synchronized String getActiveIETitle() {
+        return activeWindow >= 0 ? windowTitles.get(activeWindow) : null;
+    }
+
+    @Override
+    public synchronized void moveActiveIE(final Point point) {
+        if (activeWindow >= 0) {
+            windows.get(activeWindow).setLocation(point);
+        }
+    }
+
+    @Override
+    public synchronized void restoreIE() {
+        for (int i = 0; i < windows.size(); i++) {
+            windows.get(i).setBounds(originalWindows.get(i));
+        }
+    }
+
+    @Override
+    public void refreshCache() {
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
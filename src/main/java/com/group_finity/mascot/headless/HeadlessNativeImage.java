@@ -0,0 +1,53 @@
+package com.group_finity.mascot.headless;
+
+import com.group_finity.mascot.image.NativeImage;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Image stand-in for the headless environment.
+ * <p>
+ * Only the size of the source image is kept, so the pixel data can be collected
+ * as soon as loading is done.
+ */
+public class HeadlessNativeImage implements NativeImage {
+    private final int width;
+
+    private final int height;
+
+    private final boolean mirrored;
+
+    public HeadlessNativeImage(final BufferedImage image) {
+        this(image.getWidth(), image.getHeight(), false);
+    }
+
+    private HeadlessNativeImage(final int width, final int height, final boolean mirrored) {
+        this.width = width;
+        this.height = height;
+        this.mirrored = mirrored;
+    }
+
+    /**
+     * @return the same image flipped horizontally
+     */
+    HeadlessNativeImage mirror() {
+        return new HeadlessNativeImage(width, height, !mirrored);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isMirrored() {
+        return mirrored;
+    }
+
+    @Override
+    public String toString() {
+        return "HeadlessNativeImage[width=" + width + ",height=" + height + ",mirrored=" + mirrored + "]";
+    }
+}
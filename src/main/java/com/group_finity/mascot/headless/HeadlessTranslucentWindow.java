@@ -0,0 +1,74 @@
+package com.group_finity.mascot.headless;
+
+import com.group_finity.mascot.image.NativeImage;
+import com.group_finity.mascot.image.TranslucentWindow;
+
+import java.awt.*;
+
+/**
+ * Window stand-in for the headless environment.
+ * <p>
+ * This is a lightweight component that is never added to a container, so it never gets a peer.
+ * It only records the bounds, image and number of frames it was asked to display.
+ */
+public class HeadlessTranslucentWindow extends Component implements TranslucentWindow {
+    /**
+     * Image to display.
+     */
+    private HeadlessNativeImage image;
+
+    /**
+     * The number of times {@link #updateImage()} has been called.
+     */
+    private long frames;
+
+    private boolean alwaysOnTop;
+
+    private boolean disposed;
+
+    @Override
+    public String toString() {
+        return "HeadlessTranslucentWindow[hashCode=" + hashCode() + ",bounds=" + getBounds() + "]";
+    }
+
+    @Override
+    public Component asComponent() {
+        return this;
+    }
+
+    @Override
+    public void setImage(final NativeImage image) {
+        this.image = (HeadlessNativeImage) image;
+    }
+
+    public HeadlessNativeImage getImage() {
+        return image;
+    }
+
+    @Override
+    public void updateImage() {
+        frames++;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+    }
+
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    @Override
+    public void setAlwaysOnTop(final boolean onTop) {
+        alwaysOnTop = onTop;
+    }
+
+    public boolean isAlwaysOnTop() {
+        return alwaysOnTop;
+    }
+}
@@ -0,0 +1,39 @@
+package com.group_finity.mascot.headless;
+
+import com.group_finity.mascot.NativeFactory;
+import com.group_finity.mascot.environment.Environment;
+import com.group_finity.mascot.image.NativeImage;
+import com.group_finity.mascot.image.TranslucentWindow;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Headless environment, selected with {@code Environment=headless}.
+ * <p>
+ * Nothing is ever shown on screen. The desktop is simulated by a {@link HeadlessEnvironment},
+ * and windows and images only record what would have been displayed, which makes it possible
+ * to run the engine on machines without a display.
+ */
+public class NativeFactoryImpl extends NativeFactory {
+    private final HeadlessEnvironment environment = new HeadlessEnvironment();
+
+    @Override
+    public Environment getEnvironment() {
+        return environment;
+    }
+
+    @Override
+    public NativeImage newNativeImage(final BufferedImage src) {
+        return new HeadlessNativeImage(src);
+    }
+
+    @Override
+    public NativeImage newMirroredNativeImage(final NativeImage image) {
+        return ((HeadlessNativeImage) image).mirror();
+    }
+
+    @Override
+    public TranslucentWindow newTransparentWindow() {
+        return new HeadlessTranslucentWindow();
+    }
+}
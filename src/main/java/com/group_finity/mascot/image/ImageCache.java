@@ -0,0 +1,341 @@
+package com.group_finity.mascot.image;
+
+import com.group_finity.mascot.Main;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the images {@link ImagePairLoader} produces on disk, so that the next time the same images are loaded with the
+ * same scaling and filter they are read back as they are instead of being decoded, premultiplied, scaled and flipped
+ * all over again.
+ * <p>
+ * Each pair of images is kept in a file of its own in {@link Main#CACHE_DIRECTORY}, named after a hash of the source
+ * files' contents, the scaling and the filter, so an entry is never used for an image which has since been edited.
+ * The file holds a short header followed by the premultiplied ARGB pixels of both images, or only of the left-facing
+ * one if the right-facing one is the same image flipped. The header is checked before the pixels are read, and neither
+ * is mapped into memory, so that an entry which turns out to be unusable can be deleted straight away even on Windows,
+ * which does not delete a file while it is mapped. Reading an entry marks it as recently used, and once the cache grows beyond its size budget
+ * ({@code ImageCacheSize} in megabytes) the entries used longest ago are removed. The cache can be turned off with
+ * {@code ImageCache=false}.
+ */
+public class ImageCache {
+    private static final Logger log = Logger.getLogger(ImageCache.class.getName());
+
+    private static final int MAGIC = 0x53484D43; // "SHMC"
+
+    /**
+     * Changed whenever the layout of the files or the way the images are produced changes,
+     * so that entries written by an older version are not used.
+     */
+    private static final int VERSION = 4;
+
+    private static final int KEY_LENGTH = 32;
+
+    /**
+     * The magic number, version, key, scaling, filter and the width and height of both images.
+     * The right-facing image is 0 by 0 if it is not kept.
+     */
+    private static final int HEADER_LENGTH = 4 + 4 + KEY_LENGTH + 8 + 4 + 4 * 4;
+
+    private static final String SUFFIX = ".sprite";
+
+    private static final long DEFAULT_SIZE = 256;
+
+    private static final ImageCache instance = new ImageCache(Main.CACHE_DIRECTORY);
+
+    private final Path directory;
+
+    /**
+     * The total size of the entries, or -1 until the directory has been looked through.
+     */
+    private long size = -1;
+
+    public static ImageCache getInstance() {
+        return instance;
+    }
+
+    ImageCache(final Path directory) {
+        this.directory = directory;
+    }
+
+    public boolean isEnabled() {
+        return Boolean.parseBoolean(Main.getInstance().getProperties().getProperty("ImageCache", "true"));
+    }
+
+    /**
+     * @return the most the entries may take up altogether, in bytes
+     */
+    private long getBudget() {
+        try {
+            return Math.max(0, Long.parseLong(Main.getInstance().getProperties().getProperty("ImageCacheSize", String.valueOf(DEFAULT_SIZE)))) * 1024 * 1024;
+        } catch (final NumberFormatException e) {
+            return DEFAULT_SIZE * 1024 * 1024;
+        }
+    }
+
+    /**
+     * Works out what the images loaded from the given files are kept under.
+     *
+     * @param left    the left-facing image
+     * @param right   the right-facing image, or {@code null} if it is the left-facing one flipped
+     * @param scaling the scaling the images are loaded with
+     * @param filter  the filter the images are scaled with
+     * @return the key
+     * @throws IOException if either of the files cannot be read
+     */
+    public byte[] key(final Path left, final Path right, final double scaling, final ImagePairLoader.Filter filter) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        final ByteBuffer settings = ByteBuffer.allocate(4 + 8 + 4 + 1);
+        settings.putInt(VERSION).putDouble(scaling).putInt(filter.ordinal()).put((byte) (right == null ? 0 : 1));
+        digest.update(settings.array());
+        digest.update(Files.readAllBytes(left));
+        if (right != null) {
+            digest.update(Files.readAllBytes(right));
+        }
+        return digest.digest();
+    }
+
+    /**
+     * @param key     what the images are kept under
+     * @param scaling the scaling they were loaded with
+     * @param filter  the filter they were scaled with
+     * @return the left- and right-facing images, the latter being {@code null} if it is the left-facing one flipped,
+     * or {@code null} if they are not in the cache
+     */
+    public BufferedImage[] get(final byte[] key, final double scaling, final ImagePairLoader.Filter filter) {
+        final Path file = getFile(key);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long length = channel.size();
+            if (length < HEADER_LENGTH) {
+                throw new IOException("Truncated header");
+            }
+
+            final ByteBuffer header = read(channel, HEADER_LENGTH);
+            final byte[] storedKey = new byte[KEY_LENGTH];
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Unrecognised format");
+            }
+            header.get(storedKey);
+            if (!Arrays.equals(key, storedKey) || header.getDouble() != scaling || header.getInt() != filter.ordinal()) {
+                throw new IOException("Key mismatch");
+            }
+
+            final int leftWidth = header.getInt();
+            final int leftHeight = header.getInt();
+            final int rightWidth = header.getInt();
+            final int rightHeight = header.getInt();
+            final boolean hasRight = rightWidth != 0 || rightHeight != 0;
+            if (length > Integer.MAX_VALUE || leftWidth <= 0 || leftHeight <= 0 || hasRight && (rightWidth <= 0 || rightHeight <= 0)
+                    || length != HEADER_LENGTH + 4L * ((long) leftWidth * leftHeight + (long) rightWidth * rightHeight)) {
+                throw new IOException("Wrong length");
+            }
+
+            final IntBuffer pixels = read(channel, (int) (length - HEADER_LENGTH)).asIntBuffer();
+            final BufferedImage[] images = {read(pixels, leftWidth, leftHeight), hasRight ? read(pixels, rightWidth, rightHeight) : null};
+
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (final IOException e) {
+                log.log(Level.FINE, "Failed to mark cached images as used: " + file, e);
+            }
+            return images;
+        } catch (final NoSuchFileException e) {
+            return null;
+        } catch (final IOException | RuntimeException e) {
+            log.log(Level.WARNING, "Discarding unreadable cached images: " + file, e);
+            delete(file);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the next bytes of a file into a buffer on the heap.
+     *
+     * @throws IOException if the file ends first
+     */
+    private static ByteBuffer read(final FileChannel channel, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Truncated file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static BufferedImage read(final IntBuffer pixels, final int width, final int height) {
+        final int[] data = new int[width * height];
+        pixels.get(data);
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        image.getRaster().setDataElements(0, 0, width, height, data);
+        return image;
+    }
+
+    /**
+     * Adds images to the cache, then removes the entries used longest ago if that takes it over its size budget.
+     * Failing to write them is logged and otherwise ignored.
+     *
+     * @param key     what the images are kept under
+     * @param scaling the scaling they were loaded with
+     * @param filter  the filter they were scaled with
+     * @param left    the left-facing image, of type {@link BufferedImage#TYPE_INT_ARGB_PRE}
+     * @param right   the right-facing image, of type {@link BufferedImage#TYPE_INT_ARGB_PRE},
+     *                or {@code null} if it is the left-facing one flipped
+     */
+    public void put(final byte[] key, final double scaling, final ImagePairLoader.Filter filter, final BufferedImage left, final BufferedImage right) {
+        final Path file = getFile(key);
+        final int rightWidth = right != null ? right.getWidth() : 0;
+        final int rightHeight = right != null ? right.getHeight() : 0;
+        final long length = HEADER_LENGTH + 4L * ((long) left.getWidth() * left.getHeight() + (long) rightWidth * rightHeight);
+        Path temporary = null;
+        try {
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, null, ".tmp");
+
+            final ByteBuffer buffer = ByteBuffer.allocate((int) length);
+            buffer.putInt(MAGIC).putInt(VERSION).put(key).putDouble(scaling).putInt(filter.ordinal());
+            buffer.putInt(left.getWidth()).putInt(left.getHeight()).putInt(rightWidth).putInt(rightHeight);
+            write(buffer, left);
+            if (right != null) {
+                write(buffer, right);
+            }
+            buffer.flip();
+
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            // Another thread or instance may be writing the same entry, in which case either will do
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException | RuntimeException e) {
+            log.log(Level.WARNING, "Failed to cache images: " + file, e);
+            if (temporary != null) {
+                delete(temporary);
+            }
+            return;
+        }
+
+        added(length);
+    }
+
+    private static void write(final ByteBuffer buffer, final BufferedImage image) {
+        final int[] data = (int[]) image.getRaster().getDataElements(0, 0, image.getWidth(), image.getHeight(), null);
+        buffer.asIntBuffer().put(data);
+        buffer.position(buffer.position() + data.length * 4);
+    }
+
+    private synchronized void added(final long length) {
+        if (size < 0) {
+            size = 0;
+            for (final Entry entry : list()) {
+                size += entry.length;
+            }
+        } else {
+            size += length;
+        }
+
+        final long budget = getBudget();
+        if (size > budget) {
+            evict(budget);
+        }
+    }
+
+    /**
+     * Removes the entries used longest ago until the cache takes up no more than three quarters of its budget,
+     * so that it does not have to be looked through again for every image added after it first fills up.
+     */
+    private void evict(final long budget) {
+        final List<Entry> entries = list();
+        entries.sort(Comparator.comparing(entry -> entry.used));
+
+        size = 0;
+        for (final Entry entry : entries) {
+            size += entry.length;
+        }
+
+        int removed = 0;
+        for (final Entry entry : entries) {
+            if (size <= budget / 4 * 3) {
+                break;
+            }
+            if (delete(entry.file)) {
+                size -= entry.length;
+                removed++;
+            }
+        }
+        log.log(Level.INFO, "Removed {0} cached images to keep the cache within {1} bytes", new Object[]{removed, budget});
+    }
+
+    private static final class Entry {
+        private final Path file;
+        private final long length;
+        private final FileTime used;
+
+        private Entry(final Path file, final BasicFileAttributes attributes) {
+            this.file = file;
+            length = attributes.size();
+            used = attributes.lastModifiedTime();
+        }
+    }
+
+    private List<Entry> list() {
+        final List<Entry> entries = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (final Path file : files) {
+                try {
+                    entries.add(new Entry(file, Files.readAttributes(file, BasicFileAttributes.class)));
+                } catch (final IOException e) {
+                    // Removed in the meantime
+                }
+            }
+        } catch (final IOException e) {
+            log.log(Level.WARNING, "Failed to look through the image cache", e);
+        }
+        return entries;
+    }
+
+    private Path getFile(final byte[] key) {
+        final StringBuilder name = new StringBuilder(key.length * 2 + SUFFIX.length());
+        for (final byte b : key) {
+            name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return directory.resolve(name.append(SUFFIX).toString());
+    }
+
+    private static boolean delete(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+            return true;
+        } catch (final IOException e) {
+            log.log(Level.FINE, "Failed to delete " + file, e);
+            return false;
+        }
+    }
+}
@@ -9,6 +9,17 @@ import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Original Author: Yuki Yamada of <a href="http://www.group-finity.com/Shimeji/">Group Finity</a>
@@ -22,58 +33,227 @@ public class ImagePairLoader {
         BICUBIC
     }
 
+    /**
+     * The threads images are decoded and scaled on, one per processor. They stop when there is nothing left to load.
+     */
+    private static final ExecutorService EXECUTOR;
+
+    /**
+     * Images being loaded, by the same key they are kept under in {@link ImagePairs},
+     * so that an image used by several poses or image sets is only loaded once at a time.
+     */
+    private static final ConcurrentMap<String, CompletableFuture<Void>> LOADING = new ConcurrentHashMap<>();
+
+    static {
+        final AtomicInteger threads = new AtomicInteger();
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(processors, processors, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            final Thread thread = new Thread(task, "Image Loader " + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        EXECUTOR = executor;
+    }
+
     public static void load(final String name, final String rightName, final Point center, final double scaling, final Filter filter) throws IOException {
-        if (ImagePairs.contains(name + (rightName == null ? "" : rightName))) {
-            return;
+        try {
+            loadAsync(name, rightName, center, scaling, filter).join();
+        } catch (final CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Starts loading an image pair in the background, unless it has already been loaded or is being loaded.
+     *
+     * @return a future which completes once the pair is in {@link ImagePairs}, or completes exceptionally with
+     * the {@link IOException} which stopped it from being loaded
+     * @see #unwrap(CompletionException)
+     */
+    public static CompletableFuture<Void> loadAsync(final String name, final String rightName, final Point center, final double scaling, final Filter filter) {
+        final String key = name + (rightName == null ? "" : rightName);
+        if (ImagePairs.contains(key)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final CompletableFuture<Void> existing = LOADING.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        future.whenComplete((result, error) -> LOADING.remove(key, future));
+        // It may have finished loading between checking and registering
+        if (ImagePairs.contains(key)) {
+            future.complete(null);
+            return future;
         }
 
-        final BufferedImage leftImage = scale(premultiply(ImageIO.read(Main.IMAGE_DIRECTORY.resolve(name).toFile())), scaling, filter);
+        EXECUTOR.execute(() -> {
+            try {
+                ImagePairs.load(key, read(name, rightName, center, scaling, filter));
+                future.complete(null);
+            } catch (final IOException e) {
+                future.completeExceptionally(new UncheckedIOException(e));
+            } catch (final RuntimeException | Error e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @param e what {@link CompletableFuture#join()} threw for a future returned by {@link #loadAsync}
+     * @return the {@link IOException} the image failed to load with
+     */
+    public static IOException unwrap(final CompletionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof UncheckedIOException) {
+            return ((UncheckedIOException) cause).getCause();
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw e;
+    }
+
+    private static ImagePair read(final String name, final String rightName, final Point center, final double scaling, final Filter filter) throws IOException {
+        final Path leftPath = Main.IMAGE_DIRECTORY.resolve(name);
+        final Path rightPath = rightName == null ? null : Main.IMAGE_DIRECTORY.resolve(rightName);
+
+        final ImageCache cache = ImageCache.getInstance();
+        byte[] key = null;
+        BufferedImage[] cached = null;
+        if (cache.isEnabled()) {
+            try {
+                key = cache.key(leftPath, rightPath, scaling, filter);
+                cached = cache.get(key, scaling, filter);
+            } catch (final IOException e) {
+                // Left for ImageIO to report
+            }
+        }
+
+        final BufferedImage leftImage;
         final BufferedImage rightImage;
-        if (rightName == null) {
-            rightImage = flip(leftImage);
+        if (cached != null) {
+            leftImage = cached[0];
+            rightImage = cached[1];
         } else {
-            rightImage = scale(premultiply(ImageIO.read(Main.IMAGE_DIRECTORY.resolve(rightName).toFile())), scaling, filter);
+            leftImage = scale(premultiply(ImageIO.read(leftPath.toFile())), scaling, filter);
+            rightImage = rightPath == null ? null : scale(premultiply(ImageIO.read(rightPath.toFile())), scaling, filter);
+            if (key != null) {
+                cache.put(key, scaling, filter, leftImage, rightImage);
+            }
+        }
+
+        final Point leftCenter = new Point((int) Math.round(center.x * scaling), (int) Math.round(center.y * scaling));
+        final MascotImage left = new MascotImage(leftImage, leftCenter);
+        if (rightImage != null) {
+            return new ImagePair(left, new MascotImage(rightImage, new Point(rightImage.getWidth() - leftCenter.x, leftCenter.y)));
         }
 
-        ImagePair ip = new ImagePair(new MascotImage(leftImage, new Point((int) Math.round(center.x * scaling), (int) Math.round(center.y * scaling))),
-                new MascotImage(rightImage, new Point(rightImage.getWidth() - (int) Math.round(center.x * scaling), (int) Math.round(center.y * scaling))));
-        ImagePairs.load(name + (rightName == null ? "" : rightName), ip);
+        // Without an image of its own, the right-facing image shares the left-facing one's pixels and is flipped
+        // as it is drawn, unless the environment cannot do that
+        final Point rightCenter = new Point(leftImage.getWidth() - leftCenter.x, leftCenter.y);
+        final MascotImage right = left.mirror(rightCenter);
+        return new ImagePair(left, right != null ? right : new MascotImage(flip(leftImage), rightCenter));
     }
 
-    private static BufferedImage flip(final BufferedImage src) {
-        final BufferedImage copy = new BufferedImage(src.getWidth(), src.getHeight(),
+    /**
+     * @return a copy of the image flipped horizontally, of the same type
+     */
+    static BufferedImage flip(final BufferedImage src) {
+        final int width = src.getWidth();
+        final int height = src.getHeight();
+        final BufferedImage copy = new BufferedImage(width, height,
                 src.getType() == BufferedImage.TYPE_CUSTOM ? BufferedImage.TYPE_INT_ARGB : src.getType());
 
-        for (int y = 0; y < src.getHeight(); y++) {
-            for (int x = 0; x < src.getWidth(); x++) {
-                copy.setRGB(copy.getWidth() - x - 1, y, src.getRGB(x, y));
+        final int[] pixels;
+        final boolean raw = src.getType() == copy.getType() && isIntArgb(src.getType());
+        if (raw) {
+            // Copying the pixels as they are gives the same result as converting them to ARGB and back,
+            // as every premultiplied pixel produced by scale() is already one that conversion would produce
+            pixels = (int[]) src.getRaster().getDataElements(0, 0, width, height, null);
+        } else {
+            pixels = src.getRGB(0, 0, width, height, null, 0, width);
+        }
+
+        for (int row = 0; row < pixels.length; row += width) {
+            for (int left = row, right = row + width - 1; left < right; left++, right--) {
+                final int pixel = pixels[left];
+                pixels[left] = pixels[right];
+                pixels[right] = pixel;
             }
         }
+
+        if (raw) {
+            copy.getRaster().setDataElements(0, 0, width, height, pixels);
+        } else {
+            copy.setRGB(0, 0, width, height, pixels, 0, width);
+        }
         return copy;
     }
 
-    private static BufferedImage premultiply(final BufferedImage source) {
-        final BufferedImage returnImage = new BufferedImage(source.getWidth(), source.getHeight(),
+    private static boolean isIntArgb(final int type) {
+        return type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_ARGB_PRE;
+    }
+
+    /**
+     * Multiplies the colour of each pixel by its alpha, rounding to the nearest value in the same way as
+     * {@link Color#Color(float, float, float, float)}. The result is of the same type as the source,
+     * and has its pixels set as though they were not premultiplied.
+     */
+    static BufferedImage premultiply(final BufferedImage source) {
+        final int width = source.getWidth();
+        final int height = source.getHeight();
+        final BufferedImage returnImage = new BufferedImage(width, height,
                 source.getType() == BufferedImage.TYPE_CUSTOM ? BufferedImage.TYPE_INT_ARGB_PRE : source.getType());
-        Color colour;
-        float[] components;
-
-        for (int y = 0; y < returnImage.getHeight(); y++) {
-            for (int x = 0; x < returnImage.getWidth(); x++) {
-                colour = new Color(source.getRGB(x, y), true);
-                components = colour.getComponents(null);
-                components[0] = components[3] * components[0];
-                components[1] = components[3] * components[1];
-                components[2] = components[3] * components[2];
-                colour = new Color(components[0], components[1], components[2], components[3]);
-                returnImage.setRGB(x, y, colour.getRGB());
+
+        if (source.getType() == BufferedImage.TYPE_4BYTE_ABGR) {
+            // The samples of each pixel, in the order red, green, blue and alpha, are stored as they are
+            final byte[] samples = (byte[]) source.getRaster().getDataElements(0, 0, width, height, null);
+            for (int i = 0; i < samples.length; i += 4) {
+                final int alpha = samples[i + 3] & 0xFF;
+                samples[i] = (byte) multiply(samples[i] & 0xFF, alpha);
+                samples[i + 1] = (byte) multiply(samples[i + 1] & 0xFF, alpha);
+                samples[i + 2] = (byte) multiply(samples[i + 2] & 0xFF, alpha);
             }
+            returnImage.getRaster().setDataElements(0, 0, width, height, samples);
+            return returnImage;
+        }
+
+        final int[] pixels = source.getType() == BufferedImage.TYPE_INT_ARGB
+                ? (int[]) source.getRaster().getDataElements(0, 0, width, height, null)
+                : source.getRGB(0, 0, width, height, null, 0, width);
+        for (int i = 0; i < pixels.length; i++) {
+            final int pixel = pixels[i];
+            final int alpha = pixel >>> 24;
+            pixels[i] = pixel & 0xFF000000
+                    | multiply(pixel >> 16 & 0xFF, alpha) << 16
+                    | multiply(pixel >> 8 & 0xFF, alpha) << 8
+                    | multiply(pixel & 0xFF, alpha);
         }
 
+        if (returnImage.getType() == BufferedImage.TYPE_INT_ARGB) {
+            returnImage.getRaster().setDataElements(0, 0, width, height, pixels);
+        } else {
+            returnImage.setRGB(0, 0, width, height, pixels, 0, width);
+        }
         return returnImage;
     }
 
-    private static BufferedImage scale(final BufferedImage source, final double scaling, Filter filter) {
+    /**
+     * @return {@code colour * alpha / 255}, rounded to the nearest integer
+     */
+    private static int multiply(final int colour, final int alpha) {
+        return (colour * alpha + 127) / 255;
+    }
+
+    static BufferedImage scale(final BufferedImage source, final double scaling, Filter filter) {
         int width = source.getWidth();
         int height = source.getHeight();
         BufferedImage workingImage = null;
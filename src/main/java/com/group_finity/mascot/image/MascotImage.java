@@ -28,6 +28,16 @@ public class MascotImage {
         this(NativeFactory.getInstance().newNativeImage(image), center, new Dimension(image.getWidth(), image.getHeight()));
     }
 
+    /**
+     * @param center the centre of the flipped image
+     * @return the image flipped horizontally, sharing its pixels, or {@code null} if the environment
+     * cannot draw images flipped
+     */
+    public MascotImage mirror(final Point center) {
+        final NativeImage mirrored = NativeFactory.getInstance().newMirroredNativeImage(image);
+        return mirrored != null ? new MascotImage(mirrored, center, size) : null;
+    }
+
     public NativeImage getImage() {
         return image;
     }
@@ -0,0 +1,61 @@
+package com.group_finity.mascot.image;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Draws the images of {@link NativeImage NativeImages} which are flipped horizontally when drawn, rather than
+ * having flipped copies of their pixels, for every backend.
+ */
+public class MirroredImages {
+
+    private MirroredImages() {
+    }
+
+    /**
+     * Draws an image with its top left corner at the given point.
+     *
+     * @param mirrored whether to draw the image flipped horizontally
+     */
+    public static void paint(final Graphics g, final BufferedImage image, final boolean mirrored, final int x, final int y) {
+        if (mirrored) {
+            final int width = image.getWidth();
+            final int height = image.getHeight();
+            g.drawImage(image, x + width, y, x, y + height, 0, 0, width, height, null);
+        } else {
+            g.drawImage(image, x, y, null);
+        }
+    }
+
+    /**
+     * @param mirrored whether the icon should paint the image flipped horizontally
+     * @return an icon which paints the image, for the window mask
+     */
+    public static Icon createIcon(final BufferedImage image, final boolean mirrored) {
+        return mirrored ? new MirroredIcon(image) : new ImageIcon(image);
+    }
+
+    private static class MirroredIcon implements Icon {
+        private final BufferedImage image;
+
+        private MirroredIcon(final BufferedImage image) {
+            this.image = image;
+        }
+
+        @Override
+        public void paintIcon(final Component c, final Graphics g, final int x, final int y) {
+            paint(g, image, true, x, y);
+        }
+
+        @Override
+        public int getIconWidth() {
+            return image.getWidth();
+        }
+
+        @Override
+        public int getIconHeight() {
+            return image.getHeight();
+        }
+    }
+}
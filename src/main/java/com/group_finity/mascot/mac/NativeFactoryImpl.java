@@ -21,6 +21,11 @@ public class NativeFactoryImpl extends NativeFactory {
         return delegate.newNativeImage(src);
     }
 
+    @Override
+    public NativeImage newMirroredNativeImage(final NativeImage image) {
+        return delegate.newMirroredNativeImage(image);
+    }
+
     @Override
     public TranslucentWindow newTransparentWindow() {
         return new MacTranslucentWindow(delegate);
@@ -35,4 +35,9 @@ public class Constant extends Variable {
         return getValue();
     }
 
+    @Override
+    public Variable copy() {
+        return this;
+    }
+
 }
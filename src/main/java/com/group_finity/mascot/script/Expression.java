@@ -0,0 +1,1069 @@
+package com.group_finity.mascot.script;
+
+import com.group_finity.mascot.Main;
+import com.group_finity.mascot.Mascot;
+import com.group_finity.mascot.exception.VariableException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * A script compiled by {@link ExpressionParser} into a tree which is evaluated directly, without Nashorn.
+ * <p>
+ * Only the subset of JavaScript which the stock configurations use is supported: numbers, strings, booleans,
+ * arithmetic, comparisons, logical operators, the conditional operator, variables, properties and methods of
+ * Java objects, and a few functions of {@code Math}. Whenever evaluating a script would need anything the tree
+ * cannot reproduce exactly as Nashorn would, such as concatenating strings or calling an overloaded method,
+ * {@link Unsupported} is thrown so that the script is evaluated with Nashorn instead.
+ * <p>
+ * As the script is then evaluated again from the start, {@link Unsupported} must never be thrown once something with
+ * a side effect has been evaluated, such as drawing a random number or calling a method other than a getter.
+ * Operands without side effects are evaluated before those with them where the order makes no difference,
+ * and {@link ExpressionParser} leaves any script which could still do so to Nashorn, as found by
+ * {@link #checkSideEffects(boolean)}.
+ */
+abstract class Expression {
+    /**
+     * Thrown when a script cannot be evaluated without Nashorn. This carries no stack trace, as it is thrown in
+     * the normal course of things and always caught by {@link Script}.
+     */
+    static final class Unsupported extends RuntimeException {
+        private static final Unsupported INSTANCE = new Unsupported();
+
+        private Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * How widely the value of an expression can be shared, from the most widely to the least.
+     */
+    enum Scope {
+        /**
+         * Always the same, so it only needs to be evaluated once.
+         */
+        CONSTANT,
+        /**
+         * The same for every mascot until the environment is next updated or mascots are added or removed.
+         */
+        TICK,
+        /**
+         * As {@link #TICK}, but only while Multiscreen is on, as otherwise the active window is limited to the screen
+         * each mascot is on.
+         */
+        TICK_WITH_MULTISCREEN,
+        /**
+         * Depends on the mascot or the action, or may change at any time.
+         */
+        MASCOT;
+
+        /**
+         * @return the narrower of the two scopes
+         */
+        Scope and(final Scope other) {
+            return compareTo(other) >= 0 ? this : other;
+        }
+    }
+
+    abstract Object evaluate(VariableMap variables) throws VariableException;
+
+    /**
+     * @return how widely the value of this expression can be shared
+     */
+    abstract Scope getScope();
+
+    /**
+     * @return whether evaluating this expression does nothing but read values, so that evaluating it again,
+     * or in a different order, makes no difference
+     */
+    abstract boolean isPure();
+
+    /**
+     * @return whether the value of this expression can always be passed to {@link #toNumber(Object)}
+     */
+    boolean isNumeric() {
+        return false;
+    }
+
+    /**
+     * Works through this expression in the order it is evaluated, making sure that {@link Unsupported} cannot be
+     * thrown after something with a side effect.
+     *
+     * @param afterSideEffect whether something with a side effect may have been evaluated before this expression
+     * @return whether something with a side effect may have been evaluated by the end of this expression
+     * @throws Unsupported if this expression could throw {@link Unsupported} after something with a side effect
+     */
+    abstract boolean checkSideEffects(boolean afterSideEffect);
+
+    /**
+     * Checks an operand which is converted to a number as soon as it has been evaluated.
+     */
+    private static boolean checkNumber(final Expression operand, final boolean afterSideEffect) {
+        final boolean after = operand.checkSideEffects(afterSideEffect);
+        if (after && !operand.isNumeric()) {
+            throw unsupported();
+        }
+        return after;
+    }
+
+    private static boolean isPure(final Expression... expressions) {
+        for (final Expression expression : expressions) {
+            if (!expression.isPure()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Scope narrowest(final Expression... expressions) {
+        Scope scope = Scope.CONSTANT;
+        for (final Expression expression : expressions) {
+            scope = scope.and(expression.getScope());
+        }
+        return scope;
+    }
+
+    static Unsupported unsupported() {
+        return Unsupported.INSTANCE;
+    }
+
+    /**
+     * @return the value converted to a number the way JavaScript would
+     */
+    static double toNumber(final Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        if (value == null) {
+            return 0;
+        }
+        throw unsupported();
+    }
+
+    /**
+     * @return whether JavaScript would treat the value as true
+     */
+    static boolean isTruthy(final Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            final double number = ((Number) value).doubleValue();
+            return number != 0 && !Double.isNaN(number);
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length() > 0;
+        }
+        return value != null;
+    }
+
+    static final class Literal extends Expression {
+        private final Object value;
+
+        Literal(final Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object evaluate(final VariableMap variables) {
+            return value;
+        }
+
+        @Override
+        Scope getScope() {
+            return Scope.CONSTANT;
+        }
+
+        @Override
+        boolean isPure() {
+            return true;
+        }
+
+        @Override
+        boolean isNumeric() {
+            return value == null || value instanceof Number || value instanceof Boolean;
+        }
+
+        @Override
+        boolean checkSideEffects(final boolean afterSideEffect) {
+            return afterSideEffect;
+        }
+    }
+
+    /**
+     * A variable, looked up in the {@link VariableMap} the script is evaluated with.
+     */
+    static final class Identifier extends Expression {
+        private final String name;
+
+        Identifier(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        Object evaluate(final VariableMap variables) throws VariableException {
+            final Variable variable = variables.getVariable(name);
+            if (variable == null) {
+                // Either a global of Nashorn's or an error, both of which are best left to Nashorn
+                throw unsupported();
+            }
+            return variable.get(variables);
+        }
+
+        @Override
+        Scope getScope() {
+            return Scope.MASCOT;
+        }
+
+        /**
+         * A variable holding a script only evaluates it the first time it is read, so reading it again is harmless.
+         */
+        @Override
+        boolean isPure() {
+            return true;
+        }
+
+        @Override
+        boolean checkSideEffects(final boolean afterSideEffect) {
+            if (afterSideEffect) {
+                throw unsupported();
+            }
+            return false;
+        }
+
+        private boolean isMascot() {
+            return name.equals("mascot");
+        }
+    }
+
+    /**
+     * One of the functions of {@code Math}.
+     */
+    static final class MathCall extends Expression {
+        private final String function;
+        private final Expression[] arguments;
+
+        private MathCall(final String function, final Expression[] arguments) {
+            this.function = function;
+            this.arguments = arguments;
+        }
+
+        /**
+         * @return the call, or {@code null} if the function is not supported with that many arguments
+         */
+        static MathCall of(final String function, final Expression[] arguments) {
+            switch (function) {
+                case "random":
+                    return arguments.length == 0 ? new MathCall(function, arguments) : null;
+                case "abs":
+                case "floor":
+                case "ceil":
+                case "round":
+                case "sqrt":
+                    return arguments.length == 1 ? new MathCall(function, arguments) : null;
+                case "min":
+                case "max":
+                    return arguments.length >= 1 ? new MathCall(function, arguments) : null;
+                case "pow":
+                    return arguments.length == 2 ? new MathCall(function, arguments) : null;
+                default:
+                    return null;
+            }
+        }
+
+        @Override
+        Object evaluate(final VariableMap variables) throws VariableException {
+            switch (function) {
+                case "random":
+                    // Draw from the mascot's own numbers, so that mascots ticked in parallel do not share a generator
+                    final Object mascot = variables.get("mascot");
+                    return mascot instanceof Mascot ? ((Mascot) mascot).getRandom().nextDouble() : Math.random();
+                case "abs":
+                    return Math.abs(toNumber(arguments[0].evaluate(variables)));
+                case "floor":
+                    return Math.floor(toNumber(arguments[0].evaluate(variables)));
+                case "ceil":
+                    return Math.ceil(toNumber(arguments[0].evaluate(variables)));
+                case "round":
+                    // JavaScript rounds halves up, towards positive infinity
+                    return Math.floor(toNumber(arguments[0].evaluate(variables)) + 0.5);
+                case "sqrt":
+                    return Math.sqrt(toNumber(arguments[0].evaluate(variables)));
+                case "pow":
+                    return Math.pow(toNumber(arguments[0].evaluate(variables)), toNumber(arguments[1].evaluate(variables)));
+                case "min":
+                case "max":
+                    double result = toNumber(arguments[0].evaluate(variables));
+                    for (int i = 1; i < arguments.length; i++) {
+                        final double argument = toNumber(arguments[i].evaluate(variables));
+                        result = function.equals("min") ? Math.min(result, argument) : Math.max(result, argument);
+                    }
+                    return result;
+                default:
+                    throw unsupported();
+            }
+        }
+
+        @Override
+        Scope getScope() {
+            return function.equals("random") ? Scope.MASCOT : narrowest(arguments);
+        }
+
+        @Override
+        boolean isPure() {
+            return !function.equals("random") && Expression.isPure(arguments);
+        }
+
+        @Override
+        boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        boolean checkSideEffects(boolean afterSideEffect) {
+            if (function.equals("random")) {
+                return true;
+            }
+            for (final Expression argument : arguments) {
+                afterSideEffect = checkNumber(argument, afterSideEffect);
+            }
+            return afterSideEffect;
+        }
+    }
+
+    /**
+     * A property of a Java object, read through its public getter or public field. The accessor is looked up
+     * the first time the property is read from an object of a given class, and reused while the class stays the same.
+     */
+    static final class Property extends Expression {
+        private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+        private final Expression target;
+        private final String name;
+        private volatile Accessor accessor;
+
+        Property(final Expression target, final String name) {
+            this.target = target;
+            this.name = name;
+        }
+
+        @Override
+        Object evaluate(final VariableMap variables) throws VariableException {
+            final Object object = target.evaluate(variables);
+            if (!isJavaBean(object)) {
+                throw unsupported();
+            }
+
+            Accessor accessor = this.accessor;
+            if (accessor == null || accessor.type != object.getClass()) {
+                accessor = new Accessor(object.getClass(), findGetter(object.getClass(), name));
+                this.accessor = accessor;
+            }
+            if (accessor.handle == null) {
+                throw unsupported();
+            }
+
+            return invoke(accessor.handle, object);
+        }
+
+        /**
+         * Only a few properties of the mascot are known to be the same for every mascot during a tick.
+         * The work area and the borders are not, as they depend on which screen the mascot is on.
+         */
+        @Override
+        Scope getScope() {
+            if (target instanceof Identifier && ((Identifier) target).isMascot()) {
+                return name.equals("totalCount") ? Scope.TICK : Scope.MASCOT;
+            }
+            if (target instanceof Property && ((Property) target).name.equals("environment") &&
+                    ((Property) target).target instanceof Identifier && ((Identifier) ((Property) target).target).isMascot()) {
+                switch (name) {
+                    case "cursor":
+                    case "screen":
+                    case "complexScreen":
+                        return Scope.TICK;
+                    case "activeIE":
+                        return Scope.TICK_WITH_MULTISCREEN;
+                    default:
+                        return Scope.MASCOT;
+                }
+            }
+            return target.getScope();
+        }
+
+        @Override
+        boolean isPure() {
+            return target.isPure();
+        }
+
+        @Override
+        boolean checkSideEffects(final boolean afterSideEffect) {
+            if (target.checkSideEffects(afterSideEffect)) {
+                throw unsupported();
+            }
+            return false;
+        }
+
+        private static Object invoke(final MethodHandle handle, final Object object) throws VariableException {
+            try {
+                return (Object) handle.invokeExact(object);
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable e) {
+                throw new VariableException(Main.getInstance().getLanguageBundle().getString("ScriptEvaluationErrorMessage") + ": " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * @return a handle taking the object and returning the value of the property, or {@code null} if there is none
+         */
+        private static MethodHandle findGetter(final Class<?> type, final String name) {
+            final String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            Method getter = findMethod(type, "get" + suffix, 0);
+            if (getter == null) {
+                getter = findMethod(type, "is" + suffix, 0);
+                if (getter != null && getter.getReturnType() != boolean.class) {
+                    getter = null;
+                }
+            }
+
+            try {
+                if (getter != null) {
+                    return MethodHandles.publicLookup().unreflect(getter).asType(GETTER_TYPE);
+                }
+
+                final Field field = type.getField(name);
+                if (Modifier.isStatic(field.getModifiers()) || !Modifier.isPublic(field.getDeclaringClass().getModifiers())) {
+                    return null;
+                }
+                return MethodHandles.publicLookup().unreflectGetter(field).asType(GETTER_TYPE);
+            } catch (final NoSuchFieldException | IllegalAccessException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * A call to a method of a Java object. As with {@link Property}, the method is looked up the first time it is
+     * called on an object of a given class. Overloaded methods are left to Nashorn.
+     */
+    static final class Call extends Expression {
+        private final Expression target;
+        private final String name;
+        private final Expression[] arguments;
+        private volatile Accessor accessor;
+
+        Call(final Expression target, final String name, final Expression[] arguments) {
+            this.target = target;
+            this.name = name;
+            this.arguments = arguments;
+        }
+
+        @Override
+        Object evaluate(final VariableMap variables) throws VariableException {
+            final Object object = target.evaluate(variables);
+            if (!isJavaBean(object)) {
+                throw unsupported();
+            }
+
+            Accessor accessor = this.accessor;
+            if (accessor == null || accessor.type != object.getClass()) {
+                final Method method = findMethod(object.getClass(), name, arguments.length);
+                MethodHandle handle = null;
+                if (method != null) {
+                    try {
+                        handle = MethodHandles.publicLookup().unreflect(method)
+                                .asType(MethodType.genericMethodType(arguments.length + 1))
+                                .asSpreader(Object[].class, arguments.length + 1);
+                    } catch (final IllegalAccessException ignored) {
+                    }
+                }
+                accessor = new Accessor(object.getClass(), handle, method != null ? method.getParameterTypes() : null);
+                this.accessor = accessor;
+            }
+            if (accessor.handle == null) {
+                throw unsupported();
+            }
+
+            final Object[] values = new Object[arguments.length + 1];
+            values[0] = object;
+            for (int i = 0; i < arguments.length; i++) {
+                values[i + 1] = convert(arguments[i].evaluate(variables), accessor.parameterTypes[i]);
+            }
+
+            try {
+                return (Object) accessor.handle.invokeExact(values);
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable e) {
+                throw new VariableException(Main.getInstance().getLanguageBundle().getString("ScriptEvaluationErrorMessage") + ": " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * A method may change something, so calling it is never shared.
+         */
+        @Override
+        Scope getScope() {
+            return Scope.MASCOT;
+        }
+
+        /**
+         * Methods named like getters, such as {@code isOn}, are taken to only read values, as properties are.
+         * Any other method may change something.
+         */
+        @Override
+        boolean isPure() {
+            return isQuery() && target.isPure() && Expression.isPure(arguments);
+        }
+
+        @Override
+        boolean checkSideEffects(boolean afterSideEffect) {
+            afterSideEffect = target.checkSideEffects(afterSideEffect);
+            for (final Expression argument : arguments) {
+                afterSideEffect = argument.checkSideEffects(afterSideEffect);
+            }
+            // The method is looked up and the arguments converted before it is called
+            if (afterSideEffect) {
+                throw unsupported();
+            }
+            return !isQuery();
+        }
+
+        private boolean isQuery() {
+            return name.length() > 2 && (name.startsWith("is") && Character.isUpperCase(name.charAt(2)) ||
+                    name.length() > 3 && (name.startsWith("get") || name.startsWith("has")) && Character.isUpperCase(name.charAt(3)));
+        }
+
+        /**
+         * @return the value as the given parameter type, where that needs no conversion Nashorn might do differently
+         */
+        private static Object convert(final Object value, final Class<?> type) {
+            if (type.isPrimitive()) {
+                if (type == boolean.class && value instanceof Boolean) {
+                    return value;
+                }
+                if (value instanceof Number) {
+                    final double number = ((Number) value).doubleValue();
+                    if (type == double.class) {
+                        return number;
+                    }
+                    if (type == int.class && number == (int) number) {
+                        return (int) number;
+                    }
+                }
+                throw unsupported();
+            }
+            if (value != null && !type.isInstance(value)) {
+                throw unsupported();
+            }
+            return value;
+        }
+    }
+
+    /**
+     * The getter or method found for objects of a given class.
+     */
+    private static final class Accessor {
+        private final Class<?> type;
+        private final MethodHandle handle;
+        private final Class<?>[] parameterTypes;
+
+        private Accessor(final Class<?> type, final MethodHandle handle) {
+            this(type, handle, null);
+        }
+
+        private Accessor(final Class<?> type, final MethodHandle handle, final Class<?>[] parameterTypes) {
+            this.type = type;
+            this.handle = handle;
+            this.parameterTypes = parameterTypes;
+        }
+    }
+
+    /**
+     * @return whether Nashorn would treat the object as a plain Java object, whose properties are its getters and fields
+     */
+    private static boolean isJavaBean(final Object object) {
+        return object != null && !(object instanceof CharSequence) && !(object instanceof Number) && !(object instanceof Boolean) &&
+                !(object instanceof Character) && !(object instanceof Map) && !(object instanceof Collection) &&
+                !(object instanceof Class) && !object.getClass().isArray() && !object.getClass().getName().startsWith("org.openjdk.nashorn.");
+    }
+
+    /**
+     * Finds the only public method with the given name and number of parameters, declared by a public class or
+     * interface so that it can be called from here.
+     *
+     * @return the method, or {@code null} if there is none or more than one
+     */
+    private static Method findMethod(final Class<?> type, final String name, final int parameterCount) {
+        if (name.equals("getClass")) {
+            return null;
+        }
+
+        Method found = null;
+        for (final Method method : type.getMethods()) {
+            if (method.getName().equals(name) && method.getParameterCount() == parameterCount && !Modifier.isStatic(method.getModifiers())) {
+                if (found != null && !Arrays.equals(found.getParameterTypes(), method.getParameterTypes())) {
+                    return null;
+                }
+                found = found == null ? method : found;
+            }
+        }
+        return found == null ? null : findPublicDeclaration(type, found);
+    }
+
+    /**
+     * A public method may be declared by a class which is not public itself, in which case it has to be called through
+     * a public superclass or interface which declares it too.
+     */
+    private static Method findPublicDeclaration(final Class<?> type, final Method method) {
+        if (Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            return method;
+        }
+
+        final Deque<Class<?>> types = new ArrayDeque<>();
+        types.add(type);
+        while (!types.isEmpty()) {
+            final Class<?> candidate = types.remove();
+            if (Modifier.isPublic(candidate.getModifiers())) {
+                try {
+                    return candidate.getMethod(method.getName(), method.getParameterTypes());
+                } catch (final NoSuchMethodException ignored) {
+                }
+            }
+            if (candidate.getSuperclass() != null) {
+                types.add(candidate.getSuperclass());
+            }
+            types.addAll(Arrays.asList(candidate.getInterfaces()));
+        }
+        return null;
+    }
+
+    static final class Not extends Expression {
+        private final Expression operand;
+
+        Not(final Expression operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object evaluate(final VariableMap variables) throws VariableException {
+            return !isTruthy(operand.evaluate(variables));
+        }
+
+        @Override
+        Scope getScope() {
+            return operand.getScope();
+        }
+
+        @Override
+        boolean isPure() {
+            return operand.isPure();
+        }
+
+        @Override
+        boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        boolean checkSideEffects(final boolean afterSideEffect) {
+            return operand.checkSideEffects(afterSideEffect);
+        }
+    }
+
+    static final class Negate extends Expression {
+        private final Expression operand;
+
+        Negate(final Expression operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object evaluate(final VariableMap variables) throws VariableException {
+            return -toNumber(operand.evaluate(variables));
+        }
+
+        @Override
+        Scope getScope() {
+            return operand.getScope();
+        }
+
+        @Override
+        boolean isPure() {
+            return operand.isPure();
+        }
+
+        @Override
+        boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        boolean checkSideEffects(final boolean afterSideEffect) {
+            return checkNumber(operand, afterSideEffect);
+        }
+    }
+
+    static final class ToNumber extends Expression {
+        private final Expression operand;
+
+        ToNumber(final Expression operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object evaluate(final VariableMap variables) throws VariableException {
+            return toNumber(operand.evaluate(variables));
+        }
+
+        @Override
+        Scope getScope() {
+            return operand.getScope();
+        }
+
+        @Override
+        boolean isPure() {
+            return operand.isPure();
+        }
+
+        @Override
+        boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        boolean checkSideEffects(final boolean afterSideEffect) {
+            return checkNumber(operand, afterSideEffect);
+        }
+    }
+
+    /**
+     * An arithmetic operator. Adding strings is left to Nashorn, as is anything else which is not a number.
+     * Each operand is converted to a number as soon as it is evaluated, and if only one of them has a side effect,
+     * the other is evaluated first.
+     */
+    static final class Arithmetic extends Expression {
+        private final char operator;
+        private final Expression left;
+        private final Expression right;
+        private final boolean rightFirst;
+
+        Arithmetic(final char operator, final Expression left, final Expression right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+            rightFirst = !left.isPure() && right.isPure();
+        }
+
+        @Override
+        Object evaluate(final VariableMap variables) throws VariableException {
+            final double left;
+            final double right;
+            if (rightFirst) {
+                right = toNumber(this.right.evaluate(variables));
+                left = toNumber(this.left.evaluate(variables));
+            } else {
+                left = toNumber(this.left.evaluate(variables));
+                right = toNumber(this.right.evaluate(variables));
+            }
+            switch (operator) {
+                case '+':
+                    return left + right;
+                case '-':
+                    return left - right;
+                case '*':
+                    return left * right;
+                case '/':
+                    return left / right;
+                case '%':
+                    return left % right;
+                default:
+                    throw unsupported();
+            }
+        }
+
+        @Override
+        Scope getScope() {
+            return narrowest(left, right);
+        }
+
+        @Override
+        boolean isPure() {
+            return left.isPure() && right.isPure();
+        }
+
+        @Override
+        boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        boolean checkSideEffects(final boolean afterSideEffect) {
+            return rightFirst ? checkNumber(left, checkNumber(right, afterSideEffect)) : checkNumber(right, checkNumber(left, afterSideEffect));
+        }
+    }
+
+    /**
+     * A relational operator between two numbers. Comparing strings is left to Nashorn.
+     * The operands are evaluated as those of {@link Arithmetic} are.
+     */
+    static final class Comparison extends Expression {
+        private final String operator;
+        private final Expression left;
+        private final Expression right;
+        private final boolean rightFirst;
+
+        Comparison(final String operator, final Expression left, final Expression right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+            rightFirst = !left.isPure() && right.isPure();
+        }
+
+        @Override
+        Object evaluate(final VariableMap variables) throws VariableException {
+            final double left;
+            final double right;
+            if (rightFirst) {
+                right = toNumber(this.right.evaluate(variables));
+                left = toNumber(this.left.evaluate(variables));
+            } else {
+                left = toNumber(this.left.evaluate(variables));
+                right = toNumber(this.right.evaluate(variables));
+            }
+            switch (operator) {
+                case "<":
+                    return left < right;
+                case "<=":
+                    return left <= right;
+                case ">":
+                    return left > right;
+                case ">=":
+                    return left >= right;
+                default:
+                    throw unsupported();
+            }
+        }
+
+        @Override
+        Scope getScope() {
+            return narrowest(left, right);
+        }
+
+        @Override
+        boolean isPure() {
+            return left.isPure() && right.isPure();
+        }
+
+        @Override
+        boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        boolean checkSideEffects(final boolean afterSideEffect) {
+            return rightFirst ? checkNumber(left, checkNumber(right, afterSideEffect)) : checkNumber(right, checkNumber(left, afterSideEffect));
+        }
+    }
+
+    /**
+     * An equality operator. Only values of the same kind are compared here, as loose equality between different kinds
+     * follows rules best left to Nashorn. The operands are evaluated in the same order as those of {@link Arithmetic}.
+     */
+    static final class Equality extends Expression {
+        private final boolean negated;
+        private final boolean strict;
+        private final Expression left;
+        private final Expression right;
+        private final boolean rightFirst;
+
+        Equality(final boolean negated, final boolean strict, final Expression left, final Expression right) {
+            this.negated = negated;
+            this.strict = strict;
+            this.left = left;
+            this.right = right;
+            rightFirst = !left.isPure() && right.isPure();
+        }
+
+        @Override
+        Object evaluate(final VariableMap variables) throws VariableException {
+            final Object left;
+            final Object right;
+            if (rightFirst) {
+                right = this.right.evaluate(variables);
+                left = this.left.evaluate(variables);
+            } else {
+                left = this.left.evaluate(variables);
+                right = this.right.evaluate(variables);
+            }
+
+            final boolean equal;
+            if (left instanceof Number && right instanceof Number) {
+                equal = ((Number) left).doubleValue() == ((Number) right).doubleValue();
+            } else if (left instanceof Boolean && right instanceof Boolean || left instanceof String && right instanceof String) {
+                equal = left.equals(right);
+            } else if (left == null || right == null) {
+                if (!strict && left != right) {
+                    throw unsupported();
+                }
+                equal = left == right;
+            } else if (isJavaBean(left) && isJavaBean(right)) {
+                equal = left == right;
+            } else if (strict) {
+                equal = false;
+            } else {
+                throw unsupported();
+            }
+            return equal != negated;
+        }
+
+        @Override
+        Scope getScope() {
+            return narrowest(left, right);
+        }
+
+        @Override
+        boolean isPure() {
+            return left.isPure() && right.isPure();
+        }
+
+        @Override
+        boolean isNumeric() {
+            return true;
+        }
+
+        /**
+         * Whether the values can be compared here depends on both of them, so neither may be evaluated after a side
+         * effect unless both are numbers.
+         */
+        @Override
+        boolean checkSideEffects(final boolean afterSideEffect) {
+            final boolean after = rightFirst ? left.checkSideEffects(right.checkSideEffects(afterSideEffect)) : right.checkSideEffects(left.checkSideEffects(afterSideEffect));
+            if (after && !(left.isNumeric() && right.isNumeric())) {
+                throw unsupported();
+            }
+            return after;
+        }
+    }
+
+    static final class And extends Expression {
+        private final Expression left;
+        private final Expression right;
+
+        And(final Expression left, final Expression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object evaluate(final VariableMap variables) throws VariableException {
+            final Object left = this.left.evaluate(variables);
+            return isTruthy(left) ? right.evaluate(variables) : left;
+        }
+
+        @Override
+        Scope getScope() {
+            return narrowest(left, right);
+        }
+
+        @Override
+        boolean isPure() {
+            return left.isPure() && right.isPure();
+        }
+
+        @Override
+        boolean isNumeric() {
+            return left.isNumeric() && right.isNumeric();
+        }
+
+        @Override
+        boolean checkSideEffects(final boolean afterSideEffect) {
+            return right.checkSideEffects(left.checkSideEffects(afterSideEffect));
+        }
+    }
+
+    static final class Or extends Expression {
+        private final Expression left;
+        private final Expression right;
+
+        Or(final Expression left, final Expression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object evaluate(final VariableMap variables) throws VariableException {
+            final Object left = this.left.evaluate(variables);
+            return isTruthy(left) ? left : right.evaluate(variables);
+        }
+
+        @Override
+        Scope getScope() {
+            return narrowest(left, right);
+        }
+
+        @Override
+        boolean isPure() {
+            return left.isPure() && right.isPure();
+        }
+
+        @Override
+        boolean isNumeric() {
+            return left.isNumeric() && right.isNumeric();
+        }
+
+        @Override
+        boolean checkSideEffects(final boolean afterSideEffect) {
+            return right.checkSideEffects(left.checkSideEffects(afterSideEffect));
+        }
+    }
+
+    static final class Conditional extends Expression {
+        private final Expression condition;
+        private final Expression whenTrue;
+        private final Expression whenFalse;
+
+        Conditional(final Expression condition, final Expression whenTrue, final Expression whenFalse) {
+            this.condition = condition;
+            this.whenTrue = whenTrue;
+            this.whenFalse = whenFalse;
+        }
+
+        @Override
+        Object evaluate(final VariableMap variables) throws VariableException {
+            return isTruthy(condition.evaluate(variables)) ? whenTrue.evaluate(variables) : whenFalse.evaluate(variables);
+        }
+
+        @Override
+        Scope getScope() {
+            return narrowest(condition, whenTrue, whenFalse);
+        }
+
+        @Override
+        boolean isPure() {
+            return condition.isPure() && whenTrue.isPure() && whenFalse.isPure();
+        }
+
+        @Override
+        boolean isNumeric() {
+            return whenTrue.isNumeric() && whenFalse.isNumeric();
+        }
+
+        @Override
+        boolean checkSideEffects(final boolean afterSideEffect) {
+            final boolean after = condition.checkSideEffects(afterSideEffect);
+            final boolean afterTrue = whenTrue.checkSideEffects(after);
+            final boolean afterFalse = whenFalse.checkSideEffects(after);
+            return afterTrue || afterFalse;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.group_finity.mascot.script;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parses the subset of JavaScript supported by {@link Expression}.
+ * This is a plain recursive descent parser, with one method per level of operator precedence.
+ * Anything it does not recognise, including syntax errors, makes it give up so that Nashorn compiles the script instead
+ * and reports any errors as it always has.
+ */
+class ExpressionParser {
+    /**
+     * Reserved words, which are never treated as variables.
+     */
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "break", "case", "catch", "class", "const", "continue", "debugger", "default", "delete", "do", "else",
+            "export", "extends", "finally", "for", "function", "if", "import", "in", "instanceof", "let", "new",
+            "return", "super", "switch", "this", "throw", "try", "typeof", "var", "void", "while", "with", "yield"));
+
+    /**
+     * Operators made of punctuation, longest first so that they are matched greedily.
+     */
+    private static final String[] OPERATORS = {
+            "===", "!==", "==", "!=", "<=", ">=", "&&", "||", "++", "--",
+            "(", ")", ".", ",", "?", ":", "!", "+", "-", "*", "/", "%", "<", ">"
+    };
+
+    /**
+     * Thrown when the source is outside the supported subset.
+     */
+    private static final class Unsupported extends Exception {
+        private Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final String source;
+
+    private final List<String> tokens = new ArrayList<>();
+
+    private int position = 0;
+
+    private ExpressionParser(final String source) {
+        this.source = source;
+    }
+
+    /**
+     * @param source the source of a script, without the surrounding {@code ${}} or {@code #{}}
+     * @return the script as an {@link Expression}, or {@code null} if it has to be left to Nashorn, either because
+     * it is outside the supported subset or because it might only find that out after something with a side effect
+     */
+    static Expression parse(final String source) {
+        final ExpressionParser parser = new ExpressionParser(source);
+        try {
+            parser.tokenize();
+            final Expression expression = parser.parseConditional();
+            if (parser.position != parser.tokens.size()) {
+                return null;
+            }
+            expression.checkSideEffects(false);
+            return expression;
+        } catch (final Unsupported | Expression.Unsupported e) {
+            return null;
+        }
+    }
+
+    private void tokenize() throws Unsupported {
+        int i = 0;
+        while (i < source.length()) {
+            final char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isDigit(c) || c == '.' && i + 1 < source.length() && Character.isDigit(source.charAt(i + 1))) {
+                final int start = i;
+                while (i < source.length() && (Character.isDigit(source.charAt(i)) || source.charAt(i) == '.')) {
+                    i++;
+                }
+                if (i < source.length() && Character.isJavaIdentifierPart(source.charAt(i))) {
+                    // Exponents, hexadecimal and the like
+                    throw new Unsupported();
+                }
+                tokens.add(source.substring(start, i));
+            } else if (Character.isJavaIdentifierStart(c)) {
+                final int start = i;
+                while (i < source.length() && Character.isJavaIdentifierPart(source.charAt(i))) {
+                    i++;
+                }
+                tokens.add(source.substring(start, i));
+            } else if (c == '\'' || c == '"') {
+                final int end = source.indexOf(c, i + 1);
+                if (end < 0 || source.substring(i + 1, end).indexOf('\\') >= 0) {
+                    throw new Unsupported();
+                }
+                tokens.add(source.substring(i, end + 1));
+                i = end + 1;
+            } else {
+                String operator = null;
+                for (final String candidate : OPERATORS) {
+                    if (source.startsWith(candidate, i)) {
+                        operator = candidate;
+                        break;
+                    }
+                }
+                if (operator == null || operator.equals("++") || operator.equals("--")) {
+                    throw new Unsupported();
+                }
+                tokens.add(operator);
+                i += operator.length();
+            }
+        }
+    }
+
+    private String peek() {
+        return position < tokens.size() ? tokens.get(position) : "";
+    }
+
+    private boolean accept(final String token) {
+        if (peek().equals(token)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(final String token) throws Unsupported {
+        if (!accept(token)) {
+            throw new Unsupported();
+        }
+    }
+
+    private Expression parseConditional() throws Unsupported {
+        final Expression condition = parseOr();
+        if (accept("?")) {
+            final Expression whenTrue = parseConditional();
+            expect(":");
+            return new Expression.Conditional(condition, whenTrue, parseConditional());
+        }
+        return condition;
+    }
+
+    private Expression parseOr() throws Unsupported {
+        Expression left = parseAnd();
+        while (accept("||")) {
+            left = new Expression.Or(left, parseAnd());
+        }
+        return left;
+    }
+
+    private Expression parseAnd() throws Unsupported {
+        Expression left = parseEquality();
+        while (accept("&&")) {
+            left = new Expression.And(left, parseEquality());
+        }
+        return left;
+    }
+
+    private Expression parseEquality() throws Unsupported {
+        Expression left = parseComparison();
+        while (true) {
+            final String operator = peek();
+            if (!operator.equals("==") && !operator.equals("!=") && !operator.equals("===") && !operator.equals("!==")) {
+                return left;
+            }
+            position++;
+            left = new Expression.Equality(operator.startsWith("!"), operator.length() == 3, left, parseComparison());
+        }
+    }
+
+    private Expression parseComparison() throws Unsupported {
+        Expression left = parseAdditive();
+        while (true) {
+            final String operator = peek();
+            if (!operator.equals("<") && !operator.equals("<=") && !operator.equals(">") && !operator.equals(">=")) {
+                return left;
+            }
+            position++;
+            left = new Expression.Comparison(operator, left, parseAdditive());
+        }
+    }
+
+    private Expression parseAdditive() throws Unsupported {
+        Expression left = parseMultiplicative();
+        while (true) {
+            final String operator = peek();
+            if (!operator.equals("+") && !operator.equals("-")) {
+                return left;
+            }
+            position++;
+            left = new Expression.Arithmetic(operator.charAt(0), left, parseMultiplicative());
+        }
+    }
+
+    private Expression parseMultiplicative() throws Unsupported {
+        Expression left = parseUnary();
+        while (true) {
+            final String operator = peek();
+            if (!operator.equals("*") && !operator.equals("/") && !operator.equals("%")) {
+                return left;
+            }
+            position++;
+            left = new Expression.Arithmetic(operator.charAt(0), left, parseUnary());
+        }
+    }
+
+    private Expression parseUnary() throws Unsupported {
+        if (accept("!")) {
+            return new Expression.Not(parseUnary());
+        }
+        if (accept("-")) {
+            return new Expression.Negate(parseUnary());
+        }
+        if (accept("+")) {
+            return new Expression.ToNumber(parseUnary());
+        }
+        return parseMember();
+    }
+
+    private Expression parseMember() throws Unsupported {
+        if (peek().equals("Math") && position + 1 < tokens.size() && tokens.get(position + 1).equals(".")) {
+            position += 2;
+            final String function = parseName();
+            // Anything else of Math's, such as its constants or a function which is not called, is left to Nashorn
+            if (!peek().equals("(")) {
+                throw new Unsupported();
+            }
+            final Expression call = Expression.MathCall.of(function, parseArguments());
+            if (call == null) {
+                throw new Unsupported();
+            }
+            return call;
+        }
+
+        Expression expression = parsePrimary();
+        while (accept(".")) {
+            final String name = parseName();
+            expression = peek().equals("(") ? new Expression.Call(expression, name, parseArguments()) : new Expression.Property(expression, name);
+        }
+        if (peek().equals("(")) {
+            // Calling a function which is not a method of an object
+            throw new Unsupported();
+        }
+        return expression;
+    }
+
+    private Expression[] parseArguments() throws Unsupported {
+        expect("(");
+        final List<Expression> arguments = new ArrayList<>();
+        if (!accept(")")) {
+            do {
+                arguments.add(parseConditional());
+            } while (accept(","));
+            expect(")");
+        }
+        return arguments.toArray(new Expression[0]);
+    }
+
+    private String parseName() throws Unsupported {
+        final String name = peek();
+        if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            throw new Unsupported();
+        }
+        position++;
+        return name;
+    }
+
+    private Expression parsePrimary() throws Unsupported {
+        final String token = peek();
+        if (token.isEmpty()) {
+            throw new Unsupported();
+        }
+        position++;
+
+        if (token.equals("(")) {
+            final Expression expression = parseConditional();
+            expect(")");
+            return expression;
+        }
+
+        final char first = token.charAt(0);
+        if (Character.isDigit(first) || first == '.') {
+            if (first == '0' && token.length() > 1 && Character.isDigit(token.charAt(1))) {
+                // Octal in older versions of JavaScript
+                throw new Unsupported();
+            }
+            try {
+                return new Expression.Literal(Double.parseDouble(token));
+            } catch (final NumberFormatException e) {
+                throw new Unsupported();
+            }
+        }
+        if (first == '\'' || first == '"') {
+            return new Expression.Literal(token.substring(1, token.length() - 1));
+        }
+        if (Character.isJavaIdentifierStart(first)) {
+            switch (token) {
+                case "true":
+                    return new Expression.Literal(Boolean.TRUE);
+                case "false":
+                    return new Expression.Literal(Boolean.FALSE);
+                case "null":
+                    return new Expression.Literal(null);
+                default:
+                    if (KEYWORDS.contains(token)) {
+                        throw new Unsupported();
+                    }
+                    return new Expression.Identifier(token);
+            }
+        }
+        throw new Unsupported();
+    }
+}
@@ -1,12 +1,21 @@
 package com.group_finity.mascot.script;
 
 import com.group_finity.mascot.Main;
+import com.group_finity.mascot.ManagerStats;
 import com.group_finity.mascot.exception.VariableException;
 import org.openjdk.nashorn.api.scripting.NashornScriptEngine;
 import org.openjdk.nashorn.api.scripting.NashornScriptEngineFactory;
 
 import javax.script.CompiledScript;
 import javax.script.ScriptException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Original Author: Yuki Yamada of <a href="http://www.group-finity.com/Shimeji/">Group Finity</a>
@@ -15,13 +24,109 @@ import javax.script.ScriptException;
  */
 public class Script extends Variable {
 
-    private static final NashornScriptEngine ENGINE = (NashornScriptEngine) new NashornScriptEngineFactory().getScriptEngine(new ScriptFilter());
+    private static final Logger log = Logger.getLogger(Script.class.getName());
+
+    /**
+     * Nashorn, which takes a while to start. It is only started once a script which needs it is found,
+     * either in the background by {@link #startEngineFor(String)} or by the first script compiled with it.
+     */
+    private static final FutureTask<NashornScriptEngine> ENGINE = new FutureTask<>(Script::startEngine);
+
+    private static final AtomicBoolean engineStarted = new AtomicBoolean();
+
+    /**
+     * Held while Nashorn compiles or evaluates a script. Nashorn evaluates every script in one global object, swapping
+     * in the bindings of each evaluation, so two mascots ticked on different threads would otherwise see each other's.
+     */
+    private static final Object ENGINE_LOCK = new Object();
+
+    /**
+     * Every script compiled so far, by source. Each behavior is built from scratch whenever a mascot switches to it,
+     * but the same handful of scripts appear in all of them, so each is only compiled the first time it is seen.
+     */
+    private static final ConcurrentMap<String, Compiled> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Counts calls to {@link #nextTick()}, so that shared values can tell whether they are out of date.
+     */
+    private static volatile long tick = 0;
+
+    /**
+     * Whether the Multiscreen setting is on, as set by {@link #setMultiscreen(boolean)}.
+     */
+    private static volatile boolean multiscreen = true;
+
+    /**
+     * The value of a script which is the same for every mascot, and the tick it was evaluated in.
+     */
+    private static final class Shared {
+        private final long tick;
+        private final Object value;
+
+        private Shared(final long tick, final Object value) {
+            this.tick = tick;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A script compiled into an {@link Expression} if it is simple enough, and by Nashorn if it is not
+     * or if evaluating the {@link Expression} turns out to need Nashorn.
+     * <p>
+     * A script which only depends on literals is evaluated as soon as it is compiled. One which only depends on
+     * the environment and the number of mascots is evaluated by the first mascot to need it after each tick starts,
+     * and the value is shared by all of the others until the next.
+     */
+    private static final class Compiled {
+        private final String source;
+
+        private final Expression expression;
+
+        private final Expression.Scope scope;
+
+        private final Object constant;
+
+        private volatile CompiledScript script;
+
+        private volatile Shared shared;
+
+        private Compiled(final String source, final Expression expression, final CompiledScript script) {
+            this.source = source;
+            this.expression = expression;
+            this.script = script;
+
+            Expression.Scope scope = expression != null ? expression.getScope() : Expression.Scope.MASCOT;
+            Object constant = null;
+            if (scope == Expression.Scope.CONSTANT) {
+                try {
+                    constant = expression.evaluate(null);
+                } catch (final Expression.Unsupported | VariableException e) {
+                    scope = Expression.Scope.MASCOT;
+                }
+            }
+            this.scope = scope;
+            this.constant = constant;
+        }
+
+        private boolean isShared() {
+            return scope == Expression.Scope.TICK || scope == Expression.Scope.TICK_WITH_MULTISCREEN && multiscreen;
+        }
+
+        private CompiledScript getScript() throws VariableException {
+            CompiledScript script = this.script;
+            if (script == null) {
+                script = compileWithNashorn(source);
+                this.script = script;
+            }
+            return script;
+        }
+    }
 
     private final String source;
 
     private final boolean clearAtInitFrame;
 
-    private final CompiledScript compiled;
+    private final Compiled compiled;
 
     private Object value;
 
@@ -29,11 +134,111 @@ public class Script extends Variable {
 
         this.source = source;
         this.clearAtInitFrame = clearAtInitFrame;
+        compiled = compile(source);
+    }
+
+    private Script(final Script script) {
+        source = script.source;
+        clearAtInitFrame = script.clearAtInitFrame;
+        compiled = script.compiled;
+    }
+
+    private static Compiled compile(final String source) throws VariableException {
+        final Compiled cached = CACHE.get(source);
+        if (cached != null) {
+            ManagerStats.getInstance().recordScriptCacheHit();
+            return cached;
+        }
+
+        final Compiled compiled;
+        final long begin = ManagerStats.getInstance().begin();
         try {
-            compiled = ENGINE.compile(this.source);
-        } catch (final ScriptException e) {
-            throw new VariableException(Main.getInstance().getLanguageBundle().getString("ScriptCompilationErrorMessage") + ": " + this.source, e);
+            final Expression expression = ExpressionParser.parse(source);
+            // Scripts Nashorn will always be needed for are compiled straight away, so that errors are reported as soon as they are loaded
+            compiled = new Compiled(source, expression, expression == null ? compileWithNashorn(source) : null);
+        } finally {
+            ManagerStats.getInstance().end(ManagerStats.Phase.COMPILE, begin);
         }
+
+        // Another thread may have compiled the same script in the meantime, in which case either will do
+        final Compiled existing = CACHE.putIfAbsent(source, compiled);
+        return existing != null ? existing : compiled;
+    }
+
+    private static CompiledScript compileWithNashorn(final String source) throws VariableException {
+        try {
+            final NashornScriptEngine engine = getEngine();
+            synchronized (ENGINE_LOCK) {
+                return engine.compile(source);
+            }
+        } catch (final ScriptException | ExecutionException e) {
+            throw new VariableException(Main.getInstance().getLanguageBundle().getString("ScriptCompilationErrorMessage") + ": " + source, e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VariableException(Main.getInstance().getLanguageBundle().getString("ScriptCompilationErrorMessage") + ": " + source, e);
+        }
+    }
+
+    private static NashornScriptEngine startEngine() {
+        final long begin = System.nanoTime();
+        final NashornScriptEngine engine = (NashornScriptEngine) new NashornScriptEngineFactory().getScriptEngine(new ScriptFilter());
+        log.log(Level.INFO, "Started the script engine in {0} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+        return engine;
+    }
+
+    /**
+     * @return Nashorn, started on this thread if nothing has started it yet, or once the thread starting it is done
+     */
+    private static NashornScriptEngine getEngine() throws ExecutionException, InterruptedException {
+        if (engineStarted.compareAndSet(false, true)) {
+            ENGINE.run();
+        }
+        return ENGINE.get();
+    }
+
+    /**
+     * Starts Nashorn on a background thread if the given script is one it will be needed for,
+     * so that it is ready by the time the script is compiled. Scripts which can be evaluated without it are ignored,
+     * so Nashorn is never started for configurations which only use those.
+     *
+     * @param source the source of a script, without the surrounding {@code ${}} or {@code #{}}
+     */
+    static void startEngineFor(final String source) {
+        if (engineStarted.get() || CACHE.containsKey(source) || ExpressionParser.parse(source) != null) {
+            return;
+        }
+        // With only one processor, starting it early would only slow down whatever else is loading
+        if (Runtime.getRuntime().availableProcessors() > 1 && engineStarted.compareAndSet(false, true)) {
+            final Thread thread = new Thread(ENGINE, "Script Engine Startup");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Starts a new tick, after which scripts which are the same for every mascot are evaluated again.
+     * {@link com.group_finity.mascot.Manager} calls this whenever the environment is updated
+     * or mascots are added or removed.
+     */
+    public static void nextTick() {
+        tick++;
+    }
+
+    /**
+     * Tells scripts whether the Multiscreen setting is on. {@link Main} calls this when the settings are loaded
+     * and whenever the setting is changed.
+     *
+     * @param multiscreen whether mascots may use every screen
+     */
+    public static void setMultiscreen(final boolean multiscreen) {
+        Script.multiscreen = multiscreen;
+    }
+
+    /**
+     * @return the number of distinct scripts compiled so far
+     */
+    public static int getCacheSize() {
+        return CACHE.size();
     }
 
     @Override
@@ -41,6 +246,11 @@ public class Script extends Variable {
         return isClearAtInitFrame() ? "#{" + getSource() + "}" : "${" + getSource() + "}";
     }
 
+    @Override
+    public Variable copy() {
+        return new Script(this);
+    }
+
     @Override
     public void init() {
         setValue(null);
@@ -60,13 +270,50 @@ public class Script extends Variable {
             return getValue();
         }
 
+        final Compiled compiled = getCompiled();
+        if (compiled.scope == Expression.Scope.CONSTANT) {
+            setValue(compiled.constant);
+            return getValue();
+        }
+
+        final boolean shared = compiled.isShared();
+        final long tick = Script.tick;
+        if (shared) {
+            final Shared latest = compiled.shared;
+            if (latest != null && latest.tick == tick) {
+                setValue(latest.value);
+                return getValue();
+            }
+        }
+
+        setValue(evaluate(variables));
+        if (shared) {
+            compiled.shared = new Shared(tick, getValue());
+        }
+        return getValue();
+    }
+
+    private Object evaluate(final VariableMap variables) throws VariableException {
+        final long begin = ManagerStats.getInstance().begin();
+        final long profileBegin = ScriptProfiler.getInstance().begin();
         try {
-            setValue(getCompiled().eval(variables));
+            if (getCompiled().expression != null) {
+                try {
+                    return getCompiled().expression.evaluate(variables);
+                } catch (final Expression.Unsupported ignored) {
+                    // Fall back to Nashorn
+                }
+            }
+            final CompiledScript script = getCompiled().getScript();
+            synchronized (ENGINE_LOCK) {
+                return script.eval(variables);
+            }
         } catch (final ScriptException e) {
             throw new VariableException(Main.getInstance().getLanguageBundle().getString("ScriptEvaluationErrorMessage") + ": " + source, e);
+        } finally {
+            ManagerStats.getInstance().end(ManagerStats.Phase.SCRIPT, begin);
+            ScriptProfiler.getInstance().end(source, variables, profileBegin);
         }
-
-        return getValue();
     }
 
     private void setValue(final Object value) {
@@ -81,7 +328,7 @@ public class Script extends Variable {
         return clearAtInitFrame;
     }
 
-    private CompiledScript getCompiled() {
+    private Compiled getCompiled() {
         return compiled;
     }
 
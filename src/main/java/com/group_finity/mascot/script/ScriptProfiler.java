@@ -0,0 +1,157 @@
+package com.group_finity.mascot.script;
+
+import com.group_finity.mascot.Mascot;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How often each script is evaluated and how long it takes, along with the image sets, behaviors and actions
+ * it was evaluated for, so that expensive expressions in a configuration can be found.
+ * <p>
+ * This is off by default, as it costs two calls to {@link System#nanoTime()}, a few map lookups and
+ * a little string building per evaluation. Only scripts which are actually evaluated are counted;
+ * constants and values shared by every mascot during a tick are not.
+ */
+public class ScriptProfiler {
+    private static final ScriptProfiler instance = new ScriptProfiler();
+
+    public static ScriptProfiler getInstance() {
+        return instance;
+    }
+
+    /**
+     * The number of places each script was evaluated from to list in a report.
+     */
+    private static final int TRIGGER_LIMIT = 3;
+
+    private static final class Profile {
+        private final String source;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final ConcurrentMap<String, LongAdder> triggers = new ConcurrentHashMap<>();
+
+        private Profile(final String source) {
+            this.source = source;
+        }
+    }
+
+    private volatile boolean enabled = false;
+
+    private final ConcurrentMap<String, Profile> profiles = new ConcurrentHashMap<>();
+
+    private ScriptProfiler() {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the time to pass to {@link #end(String, VariableMap, long)}
+     */
+    long begin() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records an evaluation of a script.
+     *
+     * @param source    the source of the script
+     * @param variables the variables it was evaluated with, which tell which mascot and action it was evaluated for
+     * @param begin     the value returned by {@link #begin()} before it was evaluated
+     */
+    void end(final String source, final VariableMap variables, final long begin) {
+        if (begin == 0 || !enabled) {
+            return;
+        }
+
+        final long duration = System.nanoTime() - begin;
+        final Profile profile = profiles.computeIfAbsent(source, Profile::new);
+        profile.count.increment();
+        profile.totalNanos.add(duration);
+        profile.maxNanos.accumulateAndGet(duration, Math::max);
+        profile.triggers.computeIfAbsent(describe(variables), k -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return the image set, behavior and action the variables belong to, as far as they are known
+     */
+    private static String describe(final VariableMap variables) {
+        final StringBuilder description = new StringBuilder();
+        final Object mascot = variables.get("mascot");
+        if (mascot instanceof Mascot) {
+            description.append(((Mascot) mascot).getImageSet());
+            if (((Mascot) mascot).getBehavior() != null) {
+                description.append(' ').append(((Mascot) mascot).getBehavior());
+            }
+        }
+        // The action's own name may be a script, so only its type is used
+        final Object action = variables.get("action");
+        if (action != null) {
+            description.append(' ').append(action.getClass().getSimpleName());
+        } else {
+            description.append(" (choosing a behavior)");
+        }
+        return description.toString().trim();
+    }
+
+    /**
+     * @param limit the number of scripts to list
+     * @return the scripts which have taken the most time in total, one per line, busiest first
+     */
+    public String[] getHottest(final int limit) {
+        return report(Comparator.comparingLong((Profile profile) -> profile.totalNanos.sum()).reversed(), limit);
+    }
+
+    /**
+     * @param limit the number of scripts to list
+     * @return the scripts which have taken the longest in a single evaluation, one per line, slowest first
+     */
+    public String[] getSlowest(final int limit) {
+        return report(Comparator.comparingLong((Profile profile) -> profile.maxNanos.get()).reversed(), limit);
+    }
+
+    private String[] report(final Comparator<Profile> order, final int limit) {
+        final List<Profile> sorted = new ArrayList<>(profiles.values());
+        sorted.sort(order);
+
+        final List<String> lines = new ArrayList<>();
+        for (final Profile profile : sorted.subList(0, Math.max(0, Math.min(limit, sorted.size())))) {
+            final long count = profile.count.sum();
+            final long total = profile.totalNanos.sum();
+
+            final List<Map.Entry<String, LongAdder>> triggers = new ArrayList<>(profile.triggers.entrySet());
+            triggers.sort(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed());
+            final StringJoiner from = new StringJoiner("; ");
+            for (final Map.Entry<String, LongAdder> trigger : triggers.subList(0, Math.min(TRIGGER_LIMIT, triggers.size()))) {
+                from.add(trigger.getKey() + " x" + trigger.getValue().sum());
+            }
+            if (triggers.size() > TRIGGER_LIMIT) {
+                from.add((triggers.size() - TRIGGER_LIMIT) + " more");
+            }
+
+            lines.add(String.format(Locale.ROOT, "%s: count=%d total=%.3f mean=%.4f max=%.3f from %s",
+                    profile.source, count, toMillis(total), count == 0 ? 0 : toMillis(total) / count,
+                    toMillis(profile.maxNanos.get()), from));
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public void reset() {
+        profiles.clear();
+    }
+}
@@ -26,6 +26,16 @@ public abstract class Variable {
         return result;
     }
 
+    /**
+     * Gets ready to {@link #parse(String)} the given source later, by starting anything slow it will need
+     * in the background.
+     */
+    public static void prepare(final String source) {
+        if (source != null && (source.startsWith("${") || source.startsWith("#{")) && source.endsWith("}")) {
+            Script.startEngineFor(source.substring(2, source.length() - 1));
+        }
+    }
+
     private static Object parseConstant(final String source) {
         Object result = null;
 
@@ -52,4 +62,9 @@ public abstract class Variable {
 
     public abstract Object get(VariableMap variables) throws VariableException;
 
+    /**
+     * @return a variable which evaluates the same way, but keeps any value it caches to itself
+     */
+    public abstract Variable copy();
+
 }
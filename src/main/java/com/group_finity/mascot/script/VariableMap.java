@@ -10,24 +10,88 @@ import java.util.*;
  * Original Author: Yuki Yamada of <a href="http://www.group-finity.com/Shimeji/">Group Finity</a>
  * <p>
  * Currently developed by Shimeji-ee Group.
+ * <p>
+ * Each variable is kept in a numbered slot, which stays the same for as long as the map exists, even if the variable
+ * is replaced or removed. Actions look up the slots of their parameters once, when they are built, and read them by
+ * slot from then on. Looking a variable up by name, which is what Nashorn does through {@link Bindings},
+ * is a single hash lookup and allocates nothing.
  */
 public class VariableMap extends AbstractMap<String, Object> implements Bindings {
 
-    private final Map<String, Variable> rawMap = new LinkedHashMap<>();
+    private final Map<String, Integer> slots = new HashMap<>();
+
+    private String[] names = new String[8];
+
+    private Variable[] variables = new Variable[8];
+
+    private int slotCount = 0;
+
+    private int size = 0;
+
+    /**
+     * @param name the name of a variable
+     * @return the slot of the variable, or -1 if there has never been a variable with that name
+     */
+    public int getSlot(final String name) {
+        final Integer slot = slots.get(name);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * @param slot a slot returned by {@link #getSlot(String)}
+     * @return the variable in the slot, or {@code null} if there is none
+     */
+    public Variable getVariable(final int slot) {
+        return slot >= 0 ? variables[slot] : null;
+    }
+
+    /**
+     * @param name the name of a variable
+     * @return the variable, or {@code null} if there is none
+     */
+    public Variable getVariable(final String name) {
+        return getVariable(getSlot(name));
+    }
 
-    public Map<String, Variable> getRawMap() {
-        return rawMap;
+    /**
+     * @return a map with the same variables in the same slots, each {@link Variable#copy() copied}
+     */
+    public VariableMap copy() {
+        final VariableMap copy = new VariableMap();
+        copy.slots.putAll(slots);
+        copy.names = names.clone();
+        copy.variables = new Variable[variables.length];
+        for (int i = 0; i < slotCount; i++) {
+            if (variables[i] != null) {
+                copy.variables[i] = variables[i].copy();
+            }
+        }
+        copy.slotCount = slotCount;
+        copy.size = size;
+        return copy;
     }
 
     public void init() {
-        for (final Variable o : getRawMap().values()) {
-            o.init();
+        for (int i = 0; i < slotCount; i++) {
+            if (variables[i] != null) {
+                variables[i].init();
+            }
         }
     }
 
     public void initFrame() {
-        for (final Variable o : getRawMap().values()) {
-            o.initFrame();
+        for (int i = 0; i < slotCount; i++) {
+            if (variables[i] != null) {
+                variables[i].initFrame();
+            }
+        }
+    }
+
+    private Object evaluate(final Variable variable) {
+        try {
+            return variable.get(this);
+        } catch (final VariableException e) {
+            throw new RuntimeException(e);
         }
     }
 
@@ -38,33 +102,43 @@ public class VariableMap extends AbstractMap<String, Object> implements Bindings
 
             return new Iterator<>() {
 
-                private Iterator<Map.Entry<String, Variable>> rawIterator = getRawMap().entrySet()
-                        .iterator();
+                private int next = advance(0);
+
+                private int current = -1;
+
+                private int advance(int slot) {
+                    while (slot < slotCount && variables[slot] == null) {
+                        slot++;
+                    }
+                    return slot;
+                }
 
                 @Override
                 public boolean hasNext() {
-                    return rawIterator.hasNext();
+                    return next < slotCount;
                 }
 
                 @Override
                 public Map.Entry<String, Object> next() {
-                    final Map.Entry<String, Variable> rawKeyValue = rawIterator.next();
-                    final Variable value = rawKeyValue.getValue();
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    current = next;
+                    next = advance(next + 1);
+
+                    final String key = names[current];
+                    final Variable value = variables[current];
 
                     return new Map.Entry<>() {
 
                         @Override
                         public String getKey() {
-                            return rawKeyValue.getKey();
+                            return key;
                         }
 
                         @Override
                         public Object getValue() {
-                            try {
-                                return value.get(VariableMap.this);
-                            } catch (final VariableException e) {
-                                throw new RuntimeException(e);
-                            }
+                            return evaluate(value);
                         }
 
                         @Override
@@ -77,7 +151,11 @@ public class VariableMap extends AbstractMap<String, Object> implements Bindings
 
                 @Override
                 public void remove() {
-                    rawIterator.remove();
+                    if (current < 0 || variables[current] == null) {
+                        throw new IllegalStateException();
+                    }
+                    variables[current] = null;
+                    size--;
                 }
 
             };
@@ -85,7 +163,7 @@ public class VariableMap extends AbstractMap<String, Object> implements Bindings
 
         @Override
         public int size() {
-            return getRawMap().size();
+            return size;
         }
 
     };
@@ -95,18 +173,62 @@ public class VariableMap extends AbstractMap<String, Object> implements Bindings
         return entrySet;
     }
 
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key instanceof String && getVariable((String) key) != null;
+    }
+
+    @Override
+    public Object get(final Object key) {
+        final Variable variable = key instanceof String ? getVariable((String) key) : null;
+        return variable != null ? evaluate(variable) : null;
+    }
+
     @Override
     public Object put(final String key, final Object value) {
-        Object result;
+        final Variable variable = value instanceof Variable ? (Variable) value : new Constant(value);
+
+        int slot = getSlot(key);
+        if (slot < 0) {
+            if (slotCount == variables.length) {
+                names = Arrays.copyOf(names, slotCount * 2);
+                variables = Arrays.copyOf(variables, slotCount * 2);
+            }
+            slot = slotCount++;
+            slots.put(key, slot);
+            names[slot] = key;
+        }
 
-        if (value instanceof Variable) {
-            result = getRawMap().put(key, (Variable) value);
-        } else {
-            result = getRawMap().put(key, new Constant(value));
+        final Variable result = variables[slot];
+        if (result == null) {
+            size++;
         }
+        variables[slot] = variable;
+        return result;
+    }
 
+    @Override
+    public Object remove(final Object key) {
+        final int slot = key instanceof String ? getSlot((String) key) : -1;
+        if (slot < 0 || variables[slot] == null) {
+            return null;
+        }
+
+        final Variable result = variables[slot];
+        variables[slot] = null;
+        size--;
         return result;
+    }
 
+    @Override
+    public void clear() {
+        Arrays.fill(variables, 0, slotCount, null);
+        size = 0;
     }
 
 }
@@ -27,6 +27,11 @@ public class NativeFactoryImpl extends NativeFactory {
         return new VirtualNativeImage(src);
     }
 
+    @Override
+    public NativeImage newMirroredNativeImage(final NativeImage image) {
+        return ((VirtualNativeImage) image).mirror();
+    }
+
     @Override
     public TranslucentWindow newTransparentWindow() {
         VirtualTranslucentPanel panel = new VirtualTranslucentPanel();
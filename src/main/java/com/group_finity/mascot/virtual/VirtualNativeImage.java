@@ -1,5 +1,6 @@
 package com.group_finity.mascot.virtual;
 
+import com.group_finity.mascot.image.MirroredImages;
 import com.group_finity.mascot.image.NativeImage;
 
 import java.awt.*;
@@ -20,10 +21,20 @@ class VirtualNativeImage implements NativeImage {
      */
     private final BufferedImage managedImage;
 
+    /**
+     * Whether the image is drawn flipped horizontally.
+     */
+    private final boolean mirrored;
+
     // private final Icon icon;
 
     public VirtualNativeImage(final BufferedImage image) {
+        this(image, false);
+    }
+
+    private VirtualNativeImage(final BufferedImage image, final boolean mirrored) {
         managedImage = image;
+        this.mirrored = mirrored;
         // icon = new ImageIcon(image);
     }
 
@@ -63,6 +74,27 @@ class VirtualNativeImage implements NativeImage {
         return managedImage;
     }
 
+    /**
+     * @return the same image flipped horizontally, sharing its pixels
+     */
+    VirtualNativeImage mirror() {
+        return new VirtualNativeImage(managedImage, !mirrored);
+    }
+
+    /**
+     * Draws the image with its top left corner at the given point, flipped if it is mirrored.
+     */
+    void paint(final Graphics g, final int x, final int y) {
+        MirroredImages.paint(g, managedImage, mirrored, x, y);
+    }
+
+    /**
+     * @return the ARGB colour of the pixel at the given point as it is drawn
+     */
+    int getRGB(final int x, final int y) {
+        return managedImage.getRGB(mirrored ? getWidth() - 1 - x : x, y);
+    }
+
     /* public Icon getIcon() {
         return icon;
     } */
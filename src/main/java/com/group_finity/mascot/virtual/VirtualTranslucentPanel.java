@@ -27,7 +27,7 @@ class VirtualTranslucentPanel extends JPanel implements TranslucentWindow {
     @Override
     protected void paintComponent(Graphics g) {
         if (image != null) {
-            g.drawImage(image.getManagedImage(), 0, 0, null);
+            image.paint(g, 0, 0);
         }
     }
 
@@ -63,7 +63,7 @@ class VirtualTranslucentPanel extends JPanel implements TranslucentWindow {
     public boolean contains(int x, int y) {
         if (super.contains(x, y)) {
             try {
-                return (image.getManagedImage().getRGB(x, y) & 0xff000000) >>> 24 > 0;
+                return (image.getRGB(x, y) & 0xff000000) >>> 24 > 0;
             } catch (RuntimeException ex) {
                 return false;
             }
@@ -25,6 +25,11 @@ public class NativeFactoryImpl extends NativeFactory {
         return new WindowsNativeImage(src);
     }
 
+    @Override
+    public NativeImage newMirroredNativeImage(final NativeImage image) {
+        return ((WindowsNativeImage) image).mirror();
+    }
+
     @Override
     public TranslucentWindow newTransparentWindow() {
         return new WindowsTranslucentWindow();
@@ -1,5 +1,6 @@
 package com.group_finity.mascot.win;
 
+import com.group_finity.mascot.image.MirroredImages;
 import com.group_finity.mascot.image.NativeImage;
 import com.sun.jna.platform.win32.GDI32;
 import com.sun.jna.platform.win32.WinDef;
@@ -95,13 +96,23 @@ class WindowsNativeImage implements NativeImage {
      */
     private final BufferedImage managedImage;
 
+    /**
+     * Whether the image is drawn flipped horizontally.
+     */
+    private final boolean mirrored;
+
     // /**
     //  * Windows bitmap handle.
     //  */
     // private final WinDef.HBITMAP nativeHandle;
 
     public WindowsNativeImage(final BufferedImage image) {
+        this(image, false);
+    }
+
+    private WindowsNativeImage(final BufferedImage image, final boolean mirrored) {
         managedImage = image;
+        this.mirrored = mirrored;
         /* nativeHandle = createNative(image.getWidth(), image.getHeight());
 
         int[] rbgValues = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
@@ -158,6 +169,20 @@ class WindowsNativeImage implements NativeImage {
         return managedImage;
     }
 
+    /**
+     * @return the same image flipped horizontally, sharing its pixels
+     */
+    WindowsNativeImage mirror() {
+        return new WindowsNativeImage(managedImage, !mirrored);
+    }
+
+    /**
+     * Draws the image with its top left corner at the given point, flipped if it is mirrored.
+     */
+    void paint(final Graphics g, final int x, final int y) {
+        MirroredImages.paint(g, managedImage, mirrored, x, y);
+    }
+
     /* public WinDef.HBITMAP getNativeHandle() {
         return nativeHandle;
     } */
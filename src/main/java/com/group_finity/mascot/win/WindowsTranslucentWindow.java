@@ -110,7 +110,7 @@ class WindowsTranslucentWindow extends JWindow implements TranslucentWindow {
 
             // Using AWT as a temporary fix until I get paint() to work with Java 11.
             // Though I may keep using AWT here since I prefer to use high-level stuff...
-            g.drawImage(getImage().getManagedImage(), 0, 0, null);
+            getImage().paint(g, 0, 0);
         }
     }
 
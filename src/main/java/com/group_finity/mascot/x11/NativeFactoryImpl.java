@@ -31,6 +31,11 @@ public class NativeFactoryImpl extends NativeFactory {
         return new X11NativeImage(src);
     }
 
+    @Override
+    public NativeImage newMirroredNativeImage(final NativeImage image) {
+        return ((X11NativeImage) image).mirror();
+    }
+
     @Override
     public TranslucentWindow newTransparentWindow() {
         return new X11TranslucentWindow();
@@ -5,6 +5,7 @@
  */
 package com.group_finity.mascot.x11;
 
+import com.group_finity.mascot.image.MirroredImages;
 import com.group_finity.mascot.image.NativeImage;
 
 import javax.swing.*;
@@ -30,11 +31,21 @@ class X11NativeImage implements NativeImage {
      */
     private final BufferedImage managedImage;
 
+    /**
+     * Whether the image is drawn flipped horizontally.
+     */
+    private final boolean mirrored;
+
     private final Icon icon;
 
     public X11NativeImage(final BufferedImage image) {
+        this(image, false);
+    }
+
+    private X11NativeImage(final BufferedImage image, final boolean mirrored) {
         managedImage = image;
-        icon = new ImageIcon(image);
+        this.mirrored = mirrored;
+        icon = MirroredImages.createIcon(image, mirrored);
     }
 
     public void flush() {
@@ -73,6 +84,20 @@ class X11NativeImage implements NativeImage {
         return managedImage;
     }
 
+    /**
+     * @return the same image flipped horizontally, sharing its pixels
+     */
+    X11NativeImage mirror() {
+        return new X11NativeImage(managedImage, !mirrored);
+    }
+
+    /**
+     * Draws the image with its top left corner at the given point, flipped if it is mirrored.
+     */
+    void paint(final Graphics g, final int x, final int y) {
+        MirroredImages.paint(g, managedImage, mirrored, x, y);
+    }
+
     public Icon getIcon() {
         return icon;
     }
@@ -55,7 +55,7 @@ class X11TranslucentWindow extends JWindow implements TranslucentWindow {
 
             @Override
             protected void paintComponent(final Graphics g) {
-                g.drawImage(getImage().getManagedImage(), 0, 0, null);
+                getImage().paint(g, 0, 0);
             }
         };
         setContentPane(panel);
@@ -98,7 +98,7 @@ class X11TranslucentWindow extends JWindow implements TranslucentWindow {
 
             BufferedImage buf = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
             Graphics g = buf.getGraphics();
-            g.drawImage(image.getManagedImage(), 0, 0, w, h, null);
+            image.paint(g, 0, 0);
 
             GC gc = x11.XCreateGC(dpy, win, new NativeLong(0), null);
 
@@ -25,13 +25,77 @@
 
 package hqx;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 abstract class Hqx {
-    private static final int Ymask = 0x00FF0000;
-    private static final int Umask = 0x0000FF00;
-    private static final int Vmask = 0x000000FF;
+    /**
+     * The fewest source pixels worth scaling as a band of their own.
+     */
+    private static final int MIN_BAND_PIXELS = 16 * 1024;
+
+    /**
+     * Scales a band of rows of the source image.
+     */
+    interface Band {
+        /**
+         * @param firstRow the first row of the source image to scale
+         * @param lastRow  the row after the last one to scale
+         */
+        void scale(int firstRow, int lastRow);
+    }
+
+    /**
+     * Splits the rows of the source image into bands and scales them on the common {@link ForkJoinPool}, returning
+     * once all of them are done. Each row is scaled from the row itself and the rows either side of it, which are only
+     * read, and is scaled into rows of the destination image no other row is, so the bands need no overlap
+     * other than being able to read the rows either side of them. Small images are scaled on the calling thread.
+     *
+     * @param Xres the horizontal resolution of the source image
+     * @param Yres the vertical resolution of the source image
+     * @param band scales a band of rows
+     */
+    static void forEachBand(final int Xres, final int Yres, final Band band) {
+        final int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        final int minRows = Math.max(1, MIN_BAND_PIXELS / Math.max(1, Xres));
+        if (parallelism <= 1 || Yres < minRows * 2) {
+            band.scale(0, Yres);
+            return;
+        }
+
+        final int bandRows = Math.max(minRows, (Yres + parallelism * 4 - 1) / (parallelism * 4));
+        ForkJoinPool.commonPool().invoke(new BandTask(band, 0, Yres, bandRows));
+    }
+
+    private static final class BandTask extends RecursiveAction {
+        private final Band band;
+        private final int firstRow;
+        private final int lastRow;
+        private final int bandRows;
+
+        private BandTask(final Band band, final int firstRow, final int lastRow, final int bandRows) {
+            this.band = band;
+            this.firstRow = firstRow;
+            this.lastRow = lastRow;
+            this.bandRows = bandRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastRow - firstRow <= bandRows) {
+                band.scale(firstRow, lastRow);
+                return;
+            }
+            final int middle = (firstRow + lastRow) >>> 1;
+            invokeAll(new BandTask(band, firstRow, middle, bandRows), new BandTask(band, middle, lastRow, bandRows));
+        }
+    }
 
     /**
-     * Compares two ARGB colors according to the provided Y, U, V and A thresholds.
+     * Compares two ARGB colors according to the provided A threshold.
+     * <p>
+     * The Y, U and V thresholds are not used. The colours used to be compared through a lookup table which was never
+     * filled in, so every colour came out the same and only transparency has ever told pixels apart.
      *
      * @param c1  an ARGB color
      * @param c2  a second ARGB color
@@ -42,13 +106,7 @@ abstract class Hqx {
      * @return true if colors differ more than the thresholds permit, false otherwise
      */
     protected static boolean diff(final int c1, final int c2, final int trY, final int trU, final int trV, final int trA) {
-        final int YUV1 = RgbYuv.getYuv(c1);
-        final int YUV2 = RgbYuv.getYuv(c2);
-
-        return Math.abs((YUV1 & Ymask) - (YUV2 & Ymask)) > trY ||
-                Math.abs((YUV1 & Umask) - (YUV2 & Umask)) > trU ||
-                Math.abs((YUV1 & Vmask) - (YUV2 & Vmask)) > trV ||
-                Math.abs((c1 >> 24) - (c2 >> 24)) > trA;
+        return Math.abs((c1 >> 24) - (c2 >> 24)) > trA;
     }
 
 }
@@ -29,7 +29,8 @@ public class Hqx_2x extends Hqx {
     /**
      * This is the extended Java port of the hq2x algorithm.
      * <b>The destination image must be exactly twice as large in both dimensions as the source image</b>
-     * The Y, U, V, A parameters will be set as 48, 7, 6 and 0, respectively. Also, wrapping will be false.
+     * The Y, U, V, A parameters will be set as 48, 7, 6 and 0, respectively, of which only A is used.
+     * Also, wrapping will be false.
      *
      * @param sp   the source image data array in ARGB format
      * @param dp   the destination image data array in ARGB format
@@ -46,14 +47,17 @@ public class Hqx_2x extends Hqx {
     /**
      * This is the extended Java port of the hq2x algorithm.
      * <b>The destination image must be exactly twice as large in both dimensions as the source image</b>
+     * <p>
+     * Pixels are only told apart by how transparent they are, so {@code trY}, {@code trU} and {@code trV} are
+     * accepted but not used.
      *
      * @param sp    the source image data array in ARGB format
      * @param dp    the destination image data array in ARGB format
      * @param Xres  the horizontal resolution of the source image
      * @param Yres  the vertical resolution of the source image
-     * @param trY   the Y (luminance) threshold
-     * @param trU   the U (chrominance) threshold
-     * @param trV   the V (chrominance) threshold
+     * @param trY   the Y (luminance) threshold, which is not used
+     * @param trU   the U (chrominance) threshold, which is not used
+     * @param trV   the V (chrominance) threshold, which is not used
      * @param trA   the A (transparency) threshold
      * @param wrapX used for images that can be seamlessly repeated horizontally
      * @param wrapY used for images that can be seamlessly repeated vertically
@@ -61,18 +65,35 @@ public class Hqx_2x extends Hqx {
     public static void hq2x_32_rb(
             final int[] sp, final int[] dp,
             final int Xres, final int Yres,
-            int trY, int trU, final int trV, final int trA,
+            final int trY, final int trU, final int trV, final int trA,
             final boolean wrapX, final boolean wrapY) {
-        int spIdx = 0, dpIdx = 0;
         // Don't shift trA, as it uses shift right instead of a mask for comparisons.
-        trY <<= 2 * 8;
-        trU <<= 1 * 8;
+        final int shiftedTrY = trY << 2 * 8;
+        final int shiftedTrU = trU << 1 * 8;
+        forEachBand(Xres, Yres, (firstRow, lastRow) ->
+                hq2x_32_rb(sp, dp, Xres, Yres, shiftedTrY, shiftedTrU, trV, trA, wrapX, wrapY, firstRow, lastRow));
+    }
+
+    /**
+     * Scales the rows of the source image from {@code firstRow} up to but not including {@code lastRow}.
+     * Only the rows of the destination image those rows scale to are written, so bands of rows can be scaled at once.
+     *
+     * @param trY the Y (luminance) threshold, already shifted into place
+     * @param trU the U (chrominance) threshold, already shifted into place
+     */
+    static void hq2x_32_rb(
+            final int[] sp, final int[] dp,
+            final int Xres, final int Yres,
+            final int trY, final int trU, final int trV, final int trA,
+            final boolean wrapX, final boolean wrapY,
+            final int firstRow, final int lastRow) {
+        int spIdx = firstRow * Xres, dpIdx = firstRow * Xres * 2 * 2;
         final int dpL = Xres * 2;
 
         int prevline, nextline;
         final int[] w = new int[9];
 
-        for (int j = 0; j < Yres; j++) {
+        for (int j = firstRow; j < lastRow; j++) {
             prevline = j > 0
                     ? -Xres
                     : wrapY
@@ -0,0 +1,165 @@
+package com.group_finity.mascot;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the queries of {@link SpatialIndex} against a scan over every {@link Mascot}, over random layouts.
+ * <p>
+ * The layouts range from a few {@link Mascot Mascots} spread over a wide area, where {@link SpatialIndex#getNearest}
+ * soon gives up on rings and looks at every cell, to crowds packed into a few cells, where it has to stop after
+ * the right ring.
+ */
+class SpatialIndexTest {
+    private static final long SEED = 20230815L;
+
+    private static final int LAYOUTS = 200;
+
+    private static final int QUERIES = 200;
+
+    private static final int MAX_MASCOTS = 300;
+
+    private static Mascot[] pool;
+
+    @BeforeAll
+    static void createMascots() {
+        Main.getInstance().getProperties().setProperty("Environment", "headless");
+        NativeFactory.resetInstance();
+
+        pool = new Mascot[MAX_MASCOTS];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = new Mascot("Shimeji");
+        }
+    }
+
+    @AfterAll
+    static void disposeMascots() {
+        for (final Mascot mascot : pool) {
+            mascot.dispose();
+        }
+    }
+
+    @Test
+    void queriesMatchScan() {
+        final Random random = new Random(SEED);
+        for (int layout = 0; layout < LAYOUTS; layout++) {
+            final int count = random.nextInt(MAX_MASCOTS + 1);
+            // From a few cells up to several screens
+            final int spread = 1 << random.nextInt(13);
+            final int originX = random.nextInt(4000) - 2000;
+            final int originY = random.nextInt(4000) - 2000;
+
+            final Mascot[] mascots = new Mascot[count];
+            final Point[] anchors = new Point[count];
+            final Rectangle[] bounds = new Rectangle[count];
+            for (int i = 0; i < count; i++) {
+                mascots[i] = pool[i];
+                if (i > 0 && random.nextInt(10) == 0) {
+                    // Some share an anchor, for countAt
+                    anchors[i] = pick(random, anchors, i);
+                } else if (random.nextInt(20) != 0) {
+                    anchors[i] = new Point(originX + random.nextInt(spread), originY + random.nextInt(spread));
+                }
+                final Point anchor = anchors[i] != null ? anchors[i] : new Point();
+                final int width = random.nextInt(5) == 0 ? 0 : random.nextInt(300);
+                final int height = random.nextInt(300);
+                bounds[i] = new Rectangle(anchor.x - width / 2, anchor.y - height, width, height);
+            }
+
+            final SpatialIndex index = new SpatialIndex(mascots, anchors, bounds);
+            for (int query = 0; query < QUERIES; query++) {
+                final Point point = count > 0 && random.nextBoolean()
+                        ? pick(random, anchors, count)
+                        : new Point(originX - spread + random.nextInt(spread * 3), originY - spread + random.nextInt(spread * 3));
+                final Rectangle area = new Rectangle(point.x, point.y, random.nextInt(600) - 50, random.nextInt(600) - 50);
+                final Mascot exclude = count > 0 && random.nextBoolean() ? mascots[random.nextInt(count)] : null;
+
+                final String where = "layout " + layout + ", query " + query;
+                assertEquals(countAt(anchors, point), index.countAt(point), where);
+                assertEquals(mascotsAt(mascots, anchors, bounds, point), new HashSet<>(index.getMascotsAt(point)), where);
+                assertEquals(mascotsIn(mascots, anchors, bounds, area), new HashSet<>(index.getMascotsIn(area)), where);
+                assertEquals(index.getMascotsIn(area).size(), new HashSet<>(index.getMascotsIn(area)).size(), where);
+
+                final Mascot nearest = index.getNearest(point, exclude);
+                final double nearestDistance = nearestDistance(mascots, anchors, point, exclude);
+                if (Double.isNaN(nearestDistance)) {
+                    assertNull(nearest, where);
+                } else {
+                    assertNotNull(nearest, where);
+                    assertNotSame(exclude, nearest, where);
+                    // Mascots at the same distance are equally near, so only the distance has to match
+                    assertEquals(nearestDistance, anchorOf(mascots, anchors, nearest).distanceSq(point), where);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a copy of one of the first {@code count} anchors, or the origin if the one picked is not there
+     */
+    private static Point pick(final Random random, final Point[] anchors, final int count) {
+        final Point anchor = anchors[random.nextInt(count)];
+        return anchor != null ? new Point(anchor) : new Point();
+    }
+
+    private static int countAt(final Point[] anchors, final Point point) {
+        int count = 0;
+        for (final Point anchor : anchors) {
+            if (point.equals(anchor)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Set<Mascot> mascotsAt(final Mascot[] mascots, final Point[] anchors, final Rectangle[] bounds, final Point point) {
+        final Set<Mascot> result = new HashSet<>();
+        for (int i = 0; i < mascots.length; i++) {
+            if (anchors[i] != null && bounds[i].contains(point)) {
+                result.add(mascots[i]);
+            }
+        }
+        return result;
+    }
+
+    private static Set<Mascot> mascotsIn(final Mascot[] mascots, final Point[] anchors, final Rectangle[] bounds, final Rectangle area) {
+        final Set<Mascot> result = new HashSet<>();
+        for (int i = 0; i < mascots.length; i++) {
+            if (anchors[i] != null && bounds[i].intersects(area)) {
+                result.add(mascots[i]);
+            }
+        }
+        return result;
+    }
+
+    private static double nearestDistance(final Mascot[] mascots, final Point[] anchors, final Point point, final Mascot exclude) {
+        double nearest = Double.NaN;
+        for (int i = 0; i < mascots.length; i++) {
+            if (anchors[i] != null && mascots[i] != exclude) {
+                final double distance = anchors[i].distanceSq(point);
+                if (Double.isNaN(nearest) || distance < nearest) {
+                    nearest = distance;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    private static Point anchorOf(final Mascot[] mascots, final Point[] anchors, final Mascot mascot) {
+        for (int i = 0; i < mascots.length; i++) {
+            if (mascots[i] == mascot) {
+                return anchors[i];
+            }
+        }
+        throw new AssertionError(mascot + " is not in the layout");
+    }
+}
@@ -0,0 +1,126 @@
+package com.group_finity.mascot.action;
+
+import com.group_finity.mascot.Main;
+import com.group_finity.mascot.Manager;
+import com.group_finity.mascot.Mascot;
+import com.group_finity.mascot.NativeFactory;
+import com.group_finity.mascot.behavior.Behavior;
+import com.group_finity.mascot.behavior.UserBehavior;
+import com.group_finity.mascot.config.Configuration;
+import com.group_finity.mascot.exception.ActionInstantiationException;
+import com.group_finity.mascot.exception.CantBeAliveException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the action of every behavior of the shipped configurations with its {@link Sequence} and {@link Select} tree
+ * flattened into an {@link ActionProgram}, and again with the tree running itself, and checks that the mascot does
+ * exactly the same thing on every tick either way, up to and including the tick in which the behavior ends.
+ * <p>
+ * The actions and the scripts run natively draw from {@link Mascot#getRandom()}, which is given the same seed before
+ * each run. As long as both ways of running a tree evaluate the same conditions and initialise the same actions
+ * in the same order, they draw the same numbers, and any difference shows up as the mascot moving, turning,
+ * changing image or changing behavior differently.
+ */
+class ActionProgramTest {
+    private static final String[] IMAGE_SETS = {"Shimeji", "KuroShimeji"};
+
+    private static final int TICKS = 400;
+
+    private static final long SEED = 20230712L;
+
+    /**
+     * On the floor, against the left wall, on the ceiling and in mid-air of the default 1920x1080 headless screen.
+     */
+    private static final Point[] ANCHORS = {new Point(960, 1080), new Point(0, 540), new Point(960, 0), new Point(960, 540)};
+
+    /**
+     * Behaviors with a script which is left to Nashorn and calls {@link Math#random()}, which cannot be seeded.
+     */
+    private static final Set<String> UNSEEDED = new HashSet<>(Arrays.asList("ClimbAlongWall", "ClimbIEWall"));
+
+    @BeforeAll
+    static void loadConfigurations() {
+        Main.getInstance().getProperties().setProperty("Environment", "headless");
+        Main.getInstance().getProperties().setProperty("ImageCache", "false");
+        NativeFactory.resetInstance();
+        for (final String imageSet : IMAGE_SETS) {
+            assertTrue(Main.getInstance().loadConfiguration(imageSet));
+        }
+    }
+
+    @Test
+    void flatProgramsBehaveLikeComplexActions() throws Exception {
+        int behaviors = 0;
+        for (final String imageSet : IMAGE_SETS) {
+            final Configuration configuration = Main.getInstance().getConfiguration(imageSet);
+            for (final String behavior : configuration.getBehaviorNames()) {
+                // None of the shipped behaviors names another action, so each runs the action of the same name
+                if (UNSEEDED.contains(behavior) || !(configuration.buildAction(behavior, Collections.emptyMap()) instanceof ComplexAction)) {
+                    continue;
+                }
+
+                for (final Point anchor : ANCHORS) {
+                    final List<String> flat = run(true, configuration, imageSet, behavior, anchor);
+                    final List<String> recursive = run(false, configuration, imageSet, behavior, anchor);
+                    for (int tick = 0; tick < recursive.size(); tick++) {
+                        assertEquals(recursive.get(tick), flat.get(tick),
+                                "Tick " + tick + " of " + behavior + " for " + imageSet + " from " + anchor);
+                    }
+                    assertEquals(recursive.size(), flat.size(), behavior + " for " + imageSet + " from " + anchor);
+                }
+                behaviors++;
+            }
+        }
+        assertTrue(behaviors > 0);
+    }
+
+    /**
+     * @return what the mascot was doing after the behavior was set, and at the end of each tick until it ended
+     */
+    private static List<String> run(final boolean flatten, final Configuration configuration, final String imageSet,
+                                    final String behavior, final Point anchor) throws ActionInstantiationException, CantBeAliveException {
+        final ComplexAction action = (ComplexAction) configuration.buildAction(behavior, Collections.emptyMap());
+        if (!flatten) {
+            action.runUnflattened();
+        }
+
+        final Manager manager = new Manager();
+        manager.setExitOnLastRemoved(false);
+        final Mascot mascot = new Mascot(imageSet);
+        mascot.setAnchor(new Point(anchor));
+        mascot.setLookRight(false);
+        mascot.getRandom().setSeed(SEED);
+        manager.add(mascot);
+
+        final List<String> trace = new ArrayList<>(TICKS + 1);
+        try {
+            // Any behavior which follows is built by the configuration, and so is always flattened
+            final Behavior first = new UserBehavior(behavior, action, configuration, false);
+            mascot.setBehavior(first);
+            trace.add(describe(manager, mascot));
+            for (int tick = 0; tick < TICKS && mascot.getBehavior() == first; tick++) {
+                manager.tick();
+                trace.add(describe(manager, mascot));
+            }
+        } finally {
+            manager.disposeAll();
+        }
+        return trace;
+    }
+
+    private static String describe(final Manager manager, final Mascot mascot) {
+        return mascot.getBehavior() + " " + mascot.getAnchor() + " right=" + mascot.isLookRight()
+                + " image=" + System.identityHashCode(mascot.getImage()) + " mascots=" + manager.getCount();
+    }
+}
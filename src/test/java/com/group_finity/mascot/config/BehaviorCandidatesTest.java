@@ -0,0 +1,145 @@
+package com.group_finity.mascot.config;
+
+import com.group_finity.mascot.Main;
+import com.group_finity.mascot.Mascot;
+import com.group_finity.mascot.NativeFactory;
+import com.group_finity.mascot.exception.VariableException;
+import com.group_finity.mascot.script.VariableMap;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link BehaviorCandidates} picks each behavior of the shipped configuration as often as the linear scan
+ * over every behavior's conditions and frequency it replaced.
+ * <p>
+ * Rather than drawing random numbers, both are given evenly spaced numbers from 0 up to 1, so the share of them which
+ * picks each behavior is its probability of being picked, give or take the spacing at each boundary between behaviors.
+ */
+class BehaviorCandidatesTest {
+    private static final String IMAGE_SET = "Shimeji";
+
+    private static final int STEPS = 10_000;
+
+    /**
+     * Places on the default 1920x1080 headless screen with different combinations of conditions:
+     * on the floor, against the left wall, on the ceiling, and in mid-air.
+     */
+    private static final Point[] ANCHORS = {new Point(960, 1080), new Point(0, 540), new Point(960, 0), new Point(960, 540)};
+
+    private static Configuration configuration;
+
+    @BeforeAll
+    static void loadConfiguration() {
+        Main.getInstance().getProperties().setProperty("Environment", "headless");
+        Main.getInstance().getProperties().setProperty("ImageCache", "false");
+        NativeFactory.resetInstance();
+        assertTrue(Main.getInstance().loadConfiguration(IMAGE_SET));
+        configuration = Main.getInstance().getConfiguration(IMAGE_SET);
+    }
+
+    @Test
+    void choosesWithSameDistributionAsLinearScan() {
+        final List<String> previousNames = new ArrayList<>();
+        previousNames.add(null);
+        previousNames.addAll(configuration.getBehaviorBuilders().keySet());
+
+        final Set<Set<BehaviorBuilder>> effectiveSets = new HashSet<>();
+        for (final String previousName : previousNames) {
+            final List<BehaviorBuilder> builders = getBuilders(previousName);
+            final BehaviorCandidates candidates = configuration.getCandidates(previousName);
+
+            for (final Point anchor : ANCHORS) {
+                final Mascot mascot = new Mascot(IMAGE_SET);
+                mascot.setAnchor(anchor);
+                final VariableMap context = configuration.createContext(mascot);
+
+                final List<BehaviorBuilder> effective = getEffective(builders, context);
+                final Map<BehaviorBuilder, Integer> expected = new HashMap<>();
+                final Map<BehaviorBuilder, Integer> actual = new HashMap<>();
+                for (int step = 0; step < STEPS; step++) {
+                    final double random = (step + 0.5) / STEPS;
+                    expected.merge(scan(effective, random), 1, Integer::sum);
+                    actual.merge(candidates.choose(context, random), 1, Integer::sum);
+                }
+                effectiveSets.add(expected.keySet());
+
+                final String where = "after " + previousName + " at " + anchor;
+                assertEquals(expected.keySet(), actual.keySet(), "Behaviors picked " + where);
+                // Each boundary between behaviors can move a pick by at most one step either way
+                final int tolerance = 2 * expected.size() + 2;
+                for (final Map.Entry<BehaviorBuilder, Integer> entry : expected.entrySet()) {
+                    assertEquals(entry.getValue(), actual.get(entry.getKey()), tolerance, "Share of " + entry.getKey() + " " + where);
+                }
+            }
+        }
+
+        // Make sure the anchors actually lead to different behaviors being effective
+        assertTrue(effectiveSets.size() > ANCHORS.length, "Only " + effectiveSets.size() + " sets of effective behaviors");
+    }
+
+    /**
+     * @return the behaviors which may follow the given one, in the order they used to be checked in
+     */
+    private static List<BehaviorBuilder> getBuilders(final String previousName) {
+        final List<BehaviorBuilder> builders = new ArrayList<>();
+        final BehaviorBuilder previous = previousName != null ? configuration.getBehaviorBuilders().get(previousName) : null;
+        if (previous == null || previous.isNextAdditive()) {
+            builders.addAll(configuration.getBehaviorBuilders().values());
+        }
+        if (previous != null) {
+            builders.addAll(previous.getNextBehaviorBuilders());
+        }
+        return builders;
+    }
+
+    /**
+     * How behaviors were chosen before {@link BehaviorCandidates}, part one: every behavior's conditions are checked.
+     * None of the shipped conditions are random, so they are only checked once for each place.
+     */
+    private static List<BehaviorBuilder> getEffective(final List<BehaviorBuilder> builders, final VariableMap context) {
+        final List<BehaviorBuilder> effective = new ArrayList<>();
+        for (final BehaviorBuilder builder : builders) {
+            try {
+                if (builder.isEffective(context)) {
+                    effective.add(builder);
+                }
+            } catch (final VariableException e) {
+                // Not effective
+            }
+        }
+        return effective;
+    }
+
+    /**
+     * Part two: the effective behaviors are walked through, subtracting each one's frequency
+     * until the random share runs out.
+     */
+    private static BehaviorBuilder scan(final List<BehaviorBuilder> candidates, final double random) {
+        long totalFrequency = 0;
+        for (final BehaviorBuilder builder : candidates) {
+            totalFrequency += builder.getFrequency();
+        }
+        if (totalFrequency == 0) {
+            return null;
+        }
+
+        double remaining = random * totalFrequency;
+        for (final BehaviorBuilder builder : candidates) {
+            remaining -= builder.getFrequency();
+            if (remaining < 0) {
+                return builder;
+            }
+        }
+        return null;
+    }
+}
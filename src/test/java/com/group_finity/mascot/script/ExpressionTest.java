@@ -0,0 +1,175 @@
+package com.group_finity.mascot.script;
+
+import com.group_finity.mascot.Main;
+import com.group_finity.mascot.Mascot;
+import com.group_finity.mascot.NativeFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openjdk.nashorn.api.scripting.NashornScriptEngine;
+import org.openjdk.nashorn.api.scripting.NashornScriptEngineFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.awt.Point;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Evaluates every script in the shipped configuration files both as an {@link Expression} and with Nashorn,
+ * and checks that they give the same result.
+ * <p>
+ * Both draw their random numbers from generators given the same seed before each script, so that scripts calling
+ * {@code Math.random()} can be compared as well.
+ */
+class ExpressionTest {
+    private static final Pattern SCRIPT = Pattern.compile("^[$#]\\{(.*)}$", Pattern.DOTALL);
+
+    private static final long SEED = 20230712L;
+
+    /**
+     * On the floor of the default 1920x1080 headless screen, which is as far as the mascot needs to be set up for
+     * every script to be evaluated.
+     */
+    private static final Point ANCHOR = new Point(960, 1080);
+
+    private static Mascot mascot;
+
+    @BeforeAll
+    static void createMascot() {
+        Main.getInstance().getProperties().setProperty("Environment", "headless");
+        Main.getInstance().getProperties().setProperty("ImageCache", "false");
+        NativeFactory.resetInstance();
+        assertTrue(Main.getInstance().loadConfiguration("Shimeji"));
+
+        mascot = new Mascot("Shimeji");
+        mascot.setAnchor(new Point(ANCHOR));
+    }
+
+    @AfterAll
+    static void disposeMascot() {
+        mascot.dispose();
+    }
+
+    @Test
+    void expressionsMatchNashorn() throws Exception {
+        final NashornScriptEngine engine = (NashornScriptEngine) new NashornScriptEngineFactory().getScriptEngine(new ScriptFilter());
+        final Random nashornRandom = new Random();
+
+        int compared = 0;
+        for (final String source : findScripts()) {
+            final Expression expression = ExpressionParser.parse(source);
+            if (expression == null) {
+                continue;
+            }
+
+            for (final boolean lookRight : new boolean[]{false, true}) {
+                mascot.setLookRight(lookRight);
+                final VariableMap variables = createVariables();
+
+                mascot.getRandom().setSeed(SEED);
+                final Object actual;
+                try {
+                    actual = expression.evaluate(variables);
+                } catch (final Expression.Unsupported e) {
+                    continue;
+                }
+
+                // Nashorn keeps a global object of its own in each VariableMap, the Math object of which is replaced here
+                final VariableMap nashornVariables = createVariables();
+                nashornVariables.put("nashornRandom", nashornRandom);
+                engine.eval("Math.random = function () { return nashornRandom.nextDouble(); }", nashornVariables);
+                nashornRandom.setSeed(SEED);
+                final Object expected = engine.compile(source).eval(nashornVariables);
+
+                final String message = source + " with lookRight=" + lookRight;
+                if (expected instanceof Number) {
+                    assertTrue(actual instanceof Number, message);
+                    assertEquals(((Number) expected).doubleValue(), ((Number) actual).doubleValue(), message);
+                } else {
+                    assertEquals(expected, actual, message);
+                }
+                compared++;
+            }
+        }
+
+        assertTrue(compared > 100, "Only " + compared + " scripts were compared");
+    }
+
+    @Test
+    void scriptsWhichCouldFallBackAfterASideEffectAreLeftToNashorn() {
+        // The property is read before the random number is drawn, so any surprise comes first
+        assertNotNull(ExpressionParser.parse("mascot.environment.workArea.left + Math.random() * (mascot.environment.workArea.width - 128)"));
+        assertNotNull(ExpressionParser.parse("mascot.environment.floor.isOn(mascot.anchor) || mascot.environment.ceiling.isOn(mascot.anchor)"));
+
+        // Each of these could only find that it needs Nashorn after drawing a random number or calling a method
+        assertNull(ExpressionParser.parse("Math.random() < 0.5 ? mascot.anchor.x : 0"));
+        assertNull(ExpressionParser.parse("Math.random() == mascot.anchor"));
+        assertNull(ExpressionParser.parse("mascot.dispose() + 1"));
+        assertNull(ExpressionParser.parse("mascot.setLookRight(true) || mascot.lookRight"));
+    }
+
+    /**
+     * @return the variables the scripts are evaluated with, including the ones actions provide to their conditions
+     */
+    private static VariableMap createVariables() {
+        final VariableMap variables = new VariableMap();
+        variables.put("mascot", mascot);
+        variables.put("FootX", 900.0);
+        variables.put("TargetY", 1000.0);
+        variables.put("Gap", 30.0);
+        return variables;
+    }
+
+    /**
+     * @return the source of every script in the XML files in the configuration directory
+     */
+    private static Set<String> findScripts() throws Exception {
+        final Set<String> scripts = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get("conf"), "*.xml")) {
+            for (final Path file : files) {
+                final Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file.toFile());
+                findScripts(document.getDocumentElement(), scripts);
+            }
+        }
+        assertFalse(scripts.isEmpty());
+        return scripts;
+    }
+
+    private static void findScripts(final Element element, final Set<String> scripts) {
+        final NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            addScript(attributes.item(i).getNodeValue(), scripts);
+        }
+
+        final NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            final Node child = children.item(i);
+            if (child instanceof Element) {
+                findScripts((Element) child, scripts);
+            } else if (child.getNodeType() == Node.TEXT_NODE) {
+                addScript(child.getNodeValue(), scripts);
+            }
+        }
+    }
+
+    private static void addScript(final String value, final Set<String> scripts) {
+        final Matcher matcher = SCRIPT.matcher(value.trim());
+        if (matcher.matches()) {
+            scripts.add(matcher.group(1));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package hqx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that scaling an image in bands of rows on the common {@link java.util.concurrent.ForkJoinPool} gives exactly
+ * the same result as scaling all of its rows in one go on the calling thread.
+ * <p>
+ * Surefire runs the tests with a common pool parallelism of 4, so that the images here are split into bands
+ * even on machines with only one processor.
+ */
+class HqxTest {
+    private interface Scaler {
+        void scale(int[] sp, int[] dp, int Xres, int Yres, int trY, int trU, int trV, int trA, boolean wrapX, boolean wrapY);
+    }
+
+    private interface BandScaler {
+        void scale(int[] sp, int[] dp, int Xres, int Yres, int trY, int trU, int trV, int trA, boolean wrapX, boolean wrapY, int firstRow, int lastRow);
+    }
+
+    /**
+     * Sizes large enough to be split into bands, along with ones which are not, and some with odd numbers of rows.
+     */
+    private static final int[][] SIZES = {{1, 1}, {3, 5}, {128, 128}, {128, 512}, {300, 401}, {64, 1000}, {1024, 97}};
+
+    @Test
+    void hq2xBandsMatchSingleThread() {
+        check(2, Hqx_2x::hq2x_32_rb, Hqx_2x::hq2x_32_rb);
+    }
+
+    @Test
+    void hq3xBandsMatchSingleThread() {
+        check(3, Hqx_3x::hq3x_32_rb, Hqx_3x::hq3x_32_rb);
+    }
+
+    @Test
+    void hq4xBandsMatchSingleThread() {
+        check(4, Hqx_4x::hq4x_32_rb, Hqx_4x::hq4x_32_rb);
+    }
+
+    @Test
+    void commonPoolIsParallel() {
+        assertTrue(java.util.concurrent.ForkJoinPool.getCommonPoolParallelism() > 1,
+                "The common pool must be parallel for the other tests to split images into bands");
+    }
+
+    private static void check(final int factor, final Scaler banded, final BandScaler single) {
+        final Random random = new Random(factor);
+        for (final int[] size : SIZES) {
+            final int width = size[0];
+            final int height = size[1];
+            final int[] source = createSprite(random, width, height);
+            for (final boolean wrapX : new boolean[]{false, true}) {
+                for (final boolean wrapY : new boolean[]{false, true}) {
+                    final int[] expected = new int[width * height * factor * factor];
+                    final int[] actual = new int[expected.length];
+                    single.scale(source, expected, width, height, 48 << 16, 7 << 8, 6, 0, wrapX, wrapY, 0, height);
+                    banded.scale(source, actual, width, height, 48, 7, 6, 0, wrapX, wrapY);
+                    assertArrayEquals(expected, actual, factor + "x of " + width + "x" + height + " with wrapX=" + wrapX + " wrapY=" + wrapY);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return an image made of a few colours, some of them transparent or translucent, in patches as in a sprite
+     */
+    private static int[] createSprite(final Random random, final int width, final int height) {
+        final int[] palette = new int[6];
+        for (int i = 0; i < palette.length; i++) {
+            final int alpha = i == 0 ? 0 : i == 1 ? random.nextInt(255) + 1 : 255;
+            palette[i] = alpha << 24 | random.nextInt(0x1000000);
+        }
+
+        final int[] pixels = new int[width * height];
+        int colour = palette[0];
+        for (int i = 0; i < pixels.length; i++) {
+            if (random.nextInt(4) == 0) {
+                colour = palette[random.nextInt(palette.length)];
+            }
+            pixels[i] = colour;
+        }
+        return pixels;
+    }
+}